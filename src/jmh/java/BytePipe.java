@@ -0,0 +1,62 @@
+// BytePipe.java
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Single-threaded in-memory byte queue: whatever is written to out can be read back from in
+class BytePipe {
+    private byte[] data = new byte[4096];
+    private int readPos, writePos;
+
+    final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+            ensure(1);
+            data[writePos++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, data, writePos, len);
+            writePos += len;
+        }
+    };
+
+    final InputStream in = new InputStream() {
+        @Override
+        public int read() {
+            return readPos < writePos ? data[readPos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int n = Math.min(len, writePos - readPos);
+            if (n <= 0) {
+                return len == 0 ? 0 : -1;
+            }
+            System.arraycopy(data, readPos, b, off, n);
+            readPos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return writePos - readPos;
+        }
+    };
+
+    // Compact consumed bytes, then grow if still short of room
+    private void ensure(int len) {
+        if (writePos + len <= data.length) {
+            return;
+        }
+        System.arraycopy(data, readPos, data, 0, writePos - readPos);
+        writePos -= readPos;
+        readPos = 0;
+        if (writePos + len > data.length) {
+            byte[] grown = new byte[Math.max(data.length * 2, writePos + len)];
+            System.arraycopy(data, 0, grown, 0, writePos);
+            data = grown;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+// CardImageWorkload.java
+import benchmarks.Workload;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+// Show six cards either by decoding each PNG (the original setCardImage) or through CardImageCache
+public class CardImageWorkload implements Workload {
+    private static final Card[] TABLE = {
+            new Card('H', 12), new Card('S', 6), new Card('D', 4),
+            new Card('C', 14), new Card('C', 9), new Card('H', 2)
+    };
+
+    private final ImageView[] views = new ImageView[TABLE.length];
+    private boolean decode;
+    private CardImageCache cache;
+
+    @Override
+    public void setUp(String variant) throws Exception {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException alreadyStarted) {
+            // Toolkit is already running in this JVM
+        }
+        decode = "decode".equals(variant);
+        cache = CardImageCache.get();
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new ImageView();
+        }
+    }
+
+    @Override
+    public Object run() {
+        for (int i = 0; i < TABLE.length; i++) {
+            if (decode) {
+                String imagePath = "/cards/" + TABLE[i].getValue() + TABLE[i].getSuit() + ".png";
+                views[i].setImage(new Image(getClass().getResourceAsStream(imagePath)));
+            } else {
+                cache.apply(views[i], TABLE[i]);
+            }
+        }
+        return views[TABLE.length - 1].getImage();
+    }
+}
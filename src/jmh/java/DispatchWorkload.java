@@ -0,0 +1,64 @@
+// DispatchWorkload.java
+import benchmarks.Workload;
+
+/**
+ * Classify each typical server message the way handleServerUpdate does.
+ * "legacy" is the original toLowerCase().contains chain, "fallback" is GamePhase.fromMessage
+ * for servers that only send text, and "typed" reads the explicit phase field.
+ */
+public class DispatchWorkload implements Workload {
+    private static final String[] MESSAGES = {
+            "Welcome! Place your bets.",
+            "Bet placed. Click Deal to get your cards.",
+            "Cards dealt. Play or fold?",
+            "You win with Pair!",
+            "New game started. Place your bets.",
+            "Fresh start. Place your bets."
+    };
+
+    private final PokerInfo[] updates = new PokerInfo[MESSAGES.length];
+    private String variant;
+
+    @Override
+    public void setUp(String variant) {
+        this.variant = variant;
+        for (int i = 0; i < MESSAGES.length; i++) {
+            updates[i] = new PokerInfo();
+            updates[i].setAction(PokerInfo.Action.UPDATE);
+            updates[i].setMessage(MESSAGES[i]);
+            if ("typed".equals(variant)) {
+                updates[i].setPhase(GamePhase.fromMessage(MESSAGES[i]));
+            }
+        }
+        if (!"legacy".equals(variant) && !"fallback".equals(variant) && !"typed".equals(variant)) {
+            throw new IllegalArgumentException("Unknown dispatch variant " + variant);
+        }
+    }
+
+    @Override
+    public Object run() {
+        int hash = 0;
+        boolean legacy = "legacy".equals(variant);
+        for (PokerInfo info : updates) {
+            hash = hash * 31 + (legacy ? legacyDispatch(info.getMessage()) : GamePhase.of(info).ordinal());
+        }
+        return hash;
+    }
+
+    // The message matching handleServerUpdate used before GamePhase, kept as the baseline
+    private static int legacyDispatch(String message) {
+        String msg = message.toLowerCase();
+        if (msg.contains("new game started")) {
+            return 0;
+        } else if (msg.contains("fresh start")) {
+            return 1;
+        } else if (msg.contains("place your bets")) {
+            return 2;
+        } else if (msg.contains("bet placed")) {
+            return 3;
+        } else if (msg.contains("cards dealt")) {
+            return 4;
+        }
+        return 5;
+    }
+}
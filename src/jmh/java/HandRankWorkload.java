@@ -0,0 +1,56 @@
+// HandRankWorkload.java
+import benchmarks.Workload;
+import java.util.Random;
+
+/**
+ * Rank a block of random three-card hands.
+ * "compute" is HandEvaluator.evaluate on Card objects, "lookup" is HandLookupTable on ordinals.
+ */
+public class HandRankWorkload implements Workload {
+    public static final int HANDS = 1024; // Hands ranked per operation
+
+    private final int[] ordinals = new int[HANDS * 3];
+    private final Card[] cards = new Card[HANDS * 3];
+    private boolean lookup;
+
+    @Override
+    public void setUp(String variant) {
+        if (!"compute".equals(variant) && !"lookup".equals(variant)) {
+            throw new IllegalArgumentException("Unknown hand rank variant " + variant);
+        }
+        lookup = "lookup".equals(variant);
+        Random random = new Random(19);
+        for (int hand = 0; hand < HANDS; hand++) {
+            int a = random.nextInt(Card.COUNT);
+            int b;
+            int c;
+            do {
+                b = random.nextInt(Card.COUNT);
+            } while (b == a);
+            do {
+                c = random.nextInt(Card.COUNT);
+            } while (c == a || c == b);
+            ordinals[hand * 3] = a;
+            ordinals[hand * 3 + 1] = b;
+            ordinals[hand * 3 + 2] = c;
+        }
+        for (int i = 0; i < ordinals.length; i++) {
+            cards[i] = Card.ofOrdinal(ordinals[i]);
+        }
+    }
+
+    @Override
+    public Object run() {
+        int sum = 0;
+        if (lookup) {
+            for (int i = 0; i < ordinals.length; i += 3) {
+                sum += HandLookupTable.score(ordinals[i], ordinals[i + 1], ordinals[i + 2]);
+            }
+        } else {
+            for (int i = 0; i < cards.length; i += 3) {
+                sum += HandEvaluator.evaluate(cards[i], cards[i + 1], cards[i + 2]);
+            }
+        }
+        return sum;
+    }
+}
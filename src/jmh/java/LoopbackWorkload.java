@@ -0,0 +1,53 @@
+// LoopbackWorkload.java
+import benchmarks.Workload;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// One request/response frame pair through ClientNetworkThread against an in-process stub server
+public class LoopbackWorkload implements Workload {
+    private StubPokerServer server;
+    private ClientNetworkThread network;
+    private final BlockingQueue<PokerInfo> responses = new ArrayBlockingQueue<>(16);
+    private PokerInfo request;
+
+    @Override
+    public void setUp(String variant) throws Exception {
+        String[] parts = variant.split(":");
+        WireFormat format = WireFormat.valueOf(parts[0]);
+        server = new StubPokerServer(0, format, 0, 1);
+        server.start();
+
+        // Headless controller: capture updates instead of touching the FX scene
+        ClientController controller = new ClientController() {
+            @Override
+            public void handleServerUpdate(PokerInfo info) {
+                responses.offer(info);
+            }
+        };
+        network = "nio".equals(parts[1])
+                ? new ClientNetworkThread("127.0.0.1", server.getPort(), controller, NioTransport.shared())
+                : new ClientNetworkThread("127.0.0.1", server.getPort(), controller, format);
+        network.setDaemon(true);
+        network.start();
+        if (responses.poll(10, TimeUnit.SECONDS) == null) {
+            throw new IllegalStateException("No response to CONNECT");
+        }
+        // PLACE_BET in the betting stage gets a full update back every time the bet is rejected or accepted
+        request = new PokerInfo();
+        request.setAction(PokerInfo.Action.PLACE_BET);
+        request.setAnteBetRequest(1);
+    }
+
+    @Override
+    public Object run() throws Exception {
+        network.sendInfo(request);
+        return responses.take();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        network.shutdown();
+        server.close();
+    }
+}
@@ -0,0 +1,24 @@
+// RoundSimWorkload.java
+import benchmarks.Workload;
+
+/**
+ * Play a block of simulated rounds on one thread, flat $5 ante.
+ * "q64" plays Queen-6-4 or better, "play" plays every hand, so both hands are always ranked.
+ */
+public class RoundSimWorkload implements Workload {
+    public static final int ROUNDS = 4096; // Rounds played per operation
+
+    private RoundSimulator.Worker worker;
+
+    @Override
+    public void setUp(String variant) {
+        RoundSimulator simulator = new RoundSimulator(RoundSimulator.PlayStrategy.named(variant),
+                RoundSimulator.BetSizing.flat(5, 0), 1_000_000, Integer.MAX_VALUE);
+        worker = simulator.newWorker(Thread.currentThread().getId());
+    }
+
+    @Override
+    public Object run() {
+        return worker.playRounds(ROUNDS);
+    }
+}
@@ -0,0 +1,39 @@
+// SerializationWorkload.java
+import benchmarks.Workload;
+
+// Write a typical dealt-hand update and read it back through one PokerStream looped onto itself
+public class SerializationWorkload implements Workload {
+    private PokerStream stream;
+    private PokerInfo sample;
+
+    @Override
+    public void setUp(String variant) throws Exception {
+        BytePipe pipe = new BytePipe();
+        stream = WireFormat.valueOf(variant).open(pipe.in, pipe.out);
+        sample = sampleUpdate();
+    }
+
+    @Override
+    public Object run() throws Exception {
+        stream.write(sample);
+        stream.flush();
+        return stream.read();
+    }
+
+    // The update a client sees after "cards dealt": message, both hands, bets and balance
+    static PokerInfo sampleUpdate() {
+        PokerInfo info = new PokerInfo();
+        info.setAction(PokerInfo.Action.UPDATE);
+        info.setMessage("Cards dealt. Play or fold?");
+        info.getPlayerHand().add(new Card('H', 12));
+        info.getPlayerHand().add(new Card('S', 6));
+        info.getPlayerHand().add(new Card('D', 4));
+        info.getDealerHand().add(new Card('C', 14));
+        info.getDealerHand().add(new Card('C', 9));
+        info.getDealerHand().add(new Card('H', 2));
+        info.setPlayerBalance(135);
+        info.setPlayerAnte(10);
+        info.setPlayerPairPlus(5);
+        return info;
+    }
+}
@@ -0,0 +1,33 @@
+// CardImageBenchmark.java
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of showing a full table of six cards.
+ * "decode" is the original per-call classpath decode, "atlas" is CardImageCache.
+ * Needs the JavaFX toolkit, so run it with a display (or under xvfb-run).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardImageBenchmark {
+    @Param({"decode", "atlas"})
+    public String path;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Workload.load("CardImageWorkload", path);
+    }
+
+    @Benchmark
+    public Object showSixCards() throws Exception {
+        return workload.run();
+    }
+}
@@ -0,0 +1,29 @@
+// DispatchBenchmark.java
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Phase dispatch in handleServerUpdate over each typical server message: old text matching vs GamePhase
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    @Param({"legacy", "fallback", "typed"})
+    public String dispatch;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Workload.load("DispatchWorkload", dispatch);
+    }
+
+    @Benchmark
+    public Object dispatchMessages() throws Exception {
+        return workload.run();
+    }
+}
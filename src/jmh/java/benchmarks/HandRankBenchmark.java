@@ -0,0 +1,32 @@
+// HandRankBenchmark.java
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Hands ranked per second: computed from cards versus looked up by card ordinals
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandRankBenchmark {
+    private static final int HANDS = 1024; // Must match HandRankWorkload.HANDS
+
+    @Param({"compute", "lookup"})
+    public String variant;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Workload.load("HandRankWorkload", variant);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public Object rankHands() throws Exception {
+        return workload.run();
+    }
+}
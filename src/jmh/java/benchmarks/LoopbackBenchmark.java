@@ -0,0 +1,38 @@
+// LoopbackBenchmark.java
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * End-to-end request/response frames per second over a loopback socket, through
+ * ClientNetworkThread and an in-process StubPokerServer.
+ * The transport is "blocking" (one socket thread) or "nio" (NioTransport, BINARY only).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopbackBenchmark {
+    @Param({"JAVA:blocking", "BINARY:blocking", "BINARY:nio"})
+    public String connection;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Workload.load("LoopbackWorkload", connection);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        return workload.run();
+    }
+}
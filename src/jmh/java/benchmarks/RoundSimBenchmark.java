@@ -0,0 +1,32 @@
+// RoundSimBenchmark.java
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Simulated rounds per second; run with -t max to measure every core together
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundSimBenchmark {
+    private static final int ROUNDS = 4096; // Must match RoundSimWorkload.ROUNDS
+
+    @Param({"q64", "play"})
+    public String variant;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Workload.load("RoundSimWorkload", variant);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object playRounds() throws Exception {
+        return workload.run();
+    }
+}
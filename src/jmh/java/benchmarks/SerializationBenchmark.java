@@ -0,0 +1,29 @@
+// SerializationBenchmark.java
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// PokerInfo serialize + deserialize round trip for each wire format
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"JAVA", "BINARY"})
+    public String format;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Workload.load("SerializationWorkload", format);
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        return workload.run();
+    }
+}
@@ -0,0 +1,37 @@
+// Workload.java
+package benchmarks;
+
+/**
+ * One measured operation on the client code.
+ * JMH refuses benchmark classes in the default package, and the client classes live there,
+ * so each benchmark in this package drives a default-package Workload loaded by name.
+ * The call goes through this interface once per operation and is inlined by the JIT.
+ */
+public interface Workload {
+    /**
+     * Prepare state for one trial.
+     * @param variant Benchmark parameter selecting what to measure.
+     */
+    void setUp(String variant) throws Exception;
+
+    /**
+     * Perform one operation.
+     * @return A result for the benchmark to consume so the work is not optimized away.
+     */
+    Object run() throws Exception;
+
+    default void tearDown() throws Exception {
+    }
+
+    /**
+     * Instantiate a default-package workload.
+     * @param className Simple name of the Workload class.
+     * @param variant Passed to setUp.
+     * @return The ready workload.
+     */
+    static Workload load(String className, String variant) throws Exception {
+        Workload workload = (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+        workload.setUp(variant);
+        return workload;
+    }
+}
@@ -0,0 +1,339 @@
+// ActionLatencyTracker.java
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Round-trip time of each request type as the player sees it: from the moment a request is
+ * handed to the connection until the server message that answers it arrives.
+ *
+ * The server answers every request except EXIT with exactly one message, in order, so sent
+ * requests wait in a fixed ring, oldest first. A response that echoes a correlation id completes
+ * the request with that id. Any other response completes the oldest waiting request if its
+ * phase fits, e.g. CARDS_DEALT for a DEAL, or a phase no request leads to, such as a refusal
+ * that leaves the round where it was. Otherwise a later request it does fit, if any, is
+ * completed instead and the older ones, which were never answered, are given up on; if none
+ * fits, the message was not an answer and is skipped. Either way the mismatch is counted and
+ * no time is recorded for it, so one unsolicited message or lost response cannot shift every
+ * later sample.
+ *
+ * The ring is single-producer, single-consumer: requests are recorded under
+ * ClientNetworkThread's send lock and responses on its reading thread. Recording allocates
+ * nothing and takes no locks; the times go into one LatencyHistogram per action.
+ *
+ * publish makes a tracker visible over JMX as projectThreeClient:type=ActionLatency,action=X,
+ * one MXBean per action with its count and p50/p99/p99.9/max in microseconds.
+ */
+public final class ActionLatencyTracker {
+    static final String DOMAIN = "projectThreeClient";
+    static final int CAPACITY = 64; // Requests awaiting a response; a power of two
+    private static final int CANCELLED = -1; // Slot of a request that never went out
+    private static final PokerInfo.Action[] ACTIONS = PokerInfo.Action.values();
+    private static final GamePhase[] ANSWERS = new GamePhase[ACTIONS.length]; // Phase an accepted request leads to; null if any
+    private static final boolean[] ANSWER_PHASES = new boolean[GamePhase.values().length]; // Phases in ANSWERS
+
+    static {
+        ANSWERS[PokerInfo.Action.PLACE_BET.ordinal()] = GamePhase.BET_PLACED;
+        ANSWERS[PokerInfo.Action.DEAL.ordinal()] = GamePhase.CARDS_DEALT;
+        ANSWERS[PokerInfo.Action.PLAY.ordinal()] = GamePhase.RESULTS;
+        ANSWERS[PokerInfo.Action.FOLD.ordinal()] = GamePhase.RESULTS;
+        ANSWERS[PokerInfo.Action.NEW_GAME.ordinal()] = GamePhase.NEW_GAME;
+        ANSWERS[PokerInfo.Action.FRESH_START.ordinal()] = GamePhase.FRESH_START;
+        for (GamePhase phase : ANSWERS) {
+            if (phase != null) {
+                ANSWER_PHASES[phase.ordinal()] = true;
+            }
+        }
+    }
+
+    private static volatile ActionLatencyTracker published; // Tracker the MBeans report on
+    private static boolean registered; // Guarded by the class
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[ACTIONS.length]; // By action ordinal
+    private final long[] sentNanos = new long[CAPACITY];
+    private final long[] sentIds = new long[CAPACITY]; // Correlation id, 0 if untracked
+    private final AtomicIntegerArray sentActions = new AtomicIntegerArray(CAPACITY); // Action ordinal, or CANCELLED
+    private final AtomicLong head = new AtomicLong(); // Next request to complete; written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next free slot; written by the producer
+    private final AtomicLong overflows = new AtomicLong(); // Requests not timed because the ring was full
+    private final AtomicLong unmatched = new AtomicLong(); // Responses with no request waiting
+    private final AtomicLong mismatched = new AtomicLong(); // Responses and requests that did not pair up
+    private int answeredAction; // Action of the request find last matched; reading thread only
+
+    public ActionLatencyTracker() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Start timing a request about to be handed to the connection; recording it first means
+     * even an instant response finds it waiting. A BATCH is timed as each of the requests it
+     * carries. Call from one thread at a time.
+     * @param request The request.
+     * @return Mark to pass to cancel if the request is not sent after all.
+     */
+    public long requestSent(PokerInfo request) {
+        long mark = tail.get();
+        PokerInfo.Action action = request.getAction();
+        if (action == null || action == PokerInfo.Action.EXIT) {
+            return mark; // Never answered
+        }
+        long now = System.nanoTime();
+        if (action == PokerInfo.Action.BATCH && request.getBatch() != null) {
+            for (int i = 0; i < request.getBatch().size(); i++) { // Indexed, so no iterator is allocated
+                PokerInfo step = request.getBatch().get(i);
+                push(step.getAction(), step.getCorrelationId(), now);
+            }
+        } else {
+            push(action, request.getCorrelationId(), now);
+        }
+        return mark;
+    }
+
+    /**
+     * Stop timing the requests recorded since a mark, because they were not sent. Call from
+     * the thread that recorded them.
+     * @param mark Value returned by requestSent.
+     */
+    public void cancel(long mark) {
+        for (long t = tail.get(), i = mark; i < t; i++) {
+            sentActions.set((int) (i & (CAPACITY - 1)), CANCELLED);
+        }
+    }
+
+    /**
+     * Complete the waiting request a server message answers, if it answers one. Call from the
+     * thread that reads server messages.
+     * @param response The message, with deltas applied so its phase is known.
+     */
+    public void responseReceived(PokerInfo response) {
+        long now = System.nanoTime();
+        long h = head.get();
+        long t = tail.get();
+        while (h != t && sentActions.get((int) (h & (CAPACITY - 1))) == CANCELLED) {
+            h++;
+        }
+        if (h == t) {
+            head.lazySet(h);
+            unmatched.incrementAndGet();
+            return;
+        }
+        long answered = find(response, h, t);
+        if (answered < 0) {
+            head.lazySet(h); // Not an answer; the requests keep waiting
+            mismatched.incrementAndGet();
+            return;
+        }
+        for (long i = h; i < answered; i++) {
+            if (sentActions.get((int) (i & (CAPACITY - 1))) != CANCELLED) {
+                mismatched.incrementAndGet(); // Overtaken, so it will not be answered
+            }
+        }
+        histograms[answeredAction].record(now - sentNanos[(int) (answered & (CAPACITY - 1))]);
+        head.lazySet(answered + 1);
+    }
+
+    // Position of the waiting request a response answers, or -1, with its action in answeredAction.
+    // Each slot's action is read once: the sending thread may cancel it at any moment
+    private long find(PokerInfo response, long h, long t) {
+        long id = response.getCorrelationId();
+        GamePhase phase = id != 0 ? null : GamePhase.of(response);
+        boolean oldest = true;
+        for (long i = h; i < t; i++) {
+            int slot = (int) (i & (CAPACITY - 1));
+            int action = sentActions.get(slot);
+            if (action == CANCELLED) {
+                continue;
+            }
+            if (id != 0) {
+                if (sentIds[slot] == id) {
+                    answeredAction = action;
+                    return i;
+                }
+            } else if (sentIds[slot] == 0) {
+                GamePhase expected = ANSWERS[action];
+                if (expected == phase || oldest && (expected == null || !ANSWER_PHASES[phase.ordinal()])) {
+                    answeredAction = action;
+                    return i;
+                }
+            }
+            oldest = false;
+        }
+        return -1;
+    }
+
+    /**
+     * Forget the waiting requests, e.g. when the connection drops and they will never be
+     * answered. Call from the thread that reads server messages.
+     */
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+
+    /**
+     * @return Round-trip times of the action, in nanoseconds.
+     */
+    public LatencyHistogram getHistogram(PokerInfo.Action action) {
+        return histograms[action.ordinal()];
+    }
+
+    /**
+     * @return Requests sent while CAPACITY others were waiting, which were not timed.
+     */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    /**
+     * @return Server messages that arrived with no request waiting for them.
+     */
+    public long getUnmatched() {
+        return unmatched.get();
+    }
+
+    /**
+     * @return Server messages that fit no waiting request, plus requests given up on because a
+     *         later one was answered first; none of them were timed.
+     */
+    public long getMismatched() {
+        return mismatched.get();
+    }
+
+    private void push(PokerInfo.Action action, long correlationId, long now) {
+        long t = tail.get();
+        if (t - head.get() >= CAPACITY) {
+            overflows.incrementAndGet();
+            return;
+        }
+        int slot = (int) (t & (CAPACITY - 1));
+        sentNanos[slot] = now;
+        sentIds[slot] = correlationId;
+        sentActions.set(slot, action == null ? PokerInfo.Action.UPDATE.ordinal() : action.ordinal());
+        tail.lazySet(t + 1); // Publishes the slot to the consumer
+    }
+
+    /**
+     * Report this tracker's numbers over JMX, in place of any tracker published before.
+     * The MBeans are registered with the platform MBean server the first time.
+     */
+    public static void publish(ActionLatencyTracker tracker) {
+        published = tracker;
+        synchronized (ActionLatencyTracker.class) {
+            if (registered) {
+                return;
+            }
+            registered = true;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (PokerInfo.Action action : ACTIONS) {
+            try {
+                ObjectName name = objectName(action);
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new ActionLatency(action), name);
+                }
+            } catch (JMException e) {
+                System.err.println("Could not register latency MBean for " + action + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return Name of the MBean reporting on an action.
+     */
+    public static ObjectName objectName(PokerInfo.Action action) throws JMException {
+        return new ObjectName(DOMAIN + ":type=ActionLatency,action=" + action.name());
+    }
+
+    /**
+     * Latency of one action, as shown in JConsole and similar tools.
+     */
+    public interface ActionLatencyMXBean {
+        String getAction();
+
+        long getCount();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaxMicros();
+
+        /**
+         * Clear the recorded times.
+         */
+        void reset();
+    }
+
+    // Reads the published tracker on every call, so the MBeans follow the current connection
+    static final class ActionLatency implements ActionLatencyMXBean {
+        private final PokerInfo.Action action;
+
+        ActionLatency(PokerInfo.Action action) {
+            this.action = action;
+        }
+
+        private LatencyHistogram histogram() {
+            ActionLatencyTracker tracker = published;
+            return tracker != null ? tracker.getHistogram(action) : null;
+        }
+
+        @Override
+        public String getAction() {
+            return action.name();
+        }
+
+        @Override
+        public long getCount() {
+            LatencyHistogram h = histogram();
+            return h != null ? h.getCount() : 0;
+        }
+
+        @Override
+        public double getMeanMicros() {
+            LatencyHistogram h = histogram();
+            return h != null ? h.getMean() / 1e3 : 0;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return percentile(50);
+        }
+
+        @Override
+        public double getP99Micros() {
+            return percentile(99);
+        }
+
+        @Override
+        public double getP999Micros() {
+            return percentile(99.9);
+        }
+
+        @Override
+        public double getMaxMicros() {
+            LatencyHistogram h = histogram();
+            return h != null ? h.getMax() / 1e3 : 0;
+        }
+
+        @Override
+        public void reset() {
+            LatencyHistogram h = histogram();
+            if (h != null) {
+                h.reset();
+            }
+        }
+
+        private double percentile(double p) {
+            LatencyHistogram h = histogram();
+            return h != null ? h.getPercentile(p) / 1e3 : 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+// BinaryPokerStream.java
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+// PokerStream using the compact PokerInfoCodec frames
+public class BinaryPokerStream implements PokerStream {
+    private final InputStream in;
+    private final OutputStream out;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(256); // Reused for every outgoing frame
+    private ByteBuffer readBuffer = ByteBuffer.allocate(256); // Reused for every incoming frame
+
+    /**
+     * Wrap a connection's raw streams.
+     * @param in Input stream from the peer.
+     * @param out Output stream to the peer.
+     */
+    public BinaryPokerStream(InputStream in, OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = new BufferedOutputStream(out);
+    }
+
+    @Override
+    public void write(PokerInfo info) throws IOException {
+        while (true) {
+            writeBuffer.clear();
+            try {
+                PokerInfoCodec.writeFrame(info, writeBuffer);
+                break;
+            } catch (BufferOverflowException e) {
+                writeBuffer = ByteBuffer.allocate(writeBuffer.capacity() * 2);
+            }
+        }
+        out.write(writeBuffer.array(), 0, writeBuffer.position());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public PokerInfo read() throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Connection closed");
+            }
+            if (shift > 28) {
+                throw new IOException("Malformed frame length");
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length < 0 || length > PokerInfoCodec.MAX_FRAME_BYTES) {
+            throw new IOException("Frame too large: " + length);
+        }
+        if (readBuffer.capacity() < length) {
+            readBuffer = ByteBuffer.allocate(Math.max(length, readBuffer.capacity() * 2));
+        }
+        int read = 0;
+        while (read < length) {
+            int n = in.read(readBuffer.array(), read, length - read);
+            if (n < 0) {
+                throw new EOFException("Connection closed mid-frame");
+            }
+            read += n;
+        }
+        readBuffer.clear().limit(length);
+        PokerInfo info = PokerInfoCodec.decode(readBuffer);
+        if (readBuffer.hasRemaining()) {
+            throw new IOException("Trailing bytes in frame");
+        }
+        return info;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            in.close();
+        }
+    }
+}
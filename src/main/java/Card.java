@@ -1,9 +1,35 @@
 // Card.java
+import java.util.List;
+
+/**
+ * An immutable playing card. Only 52 cards exist, so each has one canonical instance, obtained
+ * with Card.of or Card.ofOrdinal; deserialized cards are replaced by the canonical instance, so
+ * the cards in every received PokerInfo are shared rather than allocated per message.
+ *
+ * Each card also has a 6-bit ordinal, suit index * 13 + (value - 2) with suits ordered C, D, H, S,
+ * used as its wire byte, its image atlas slot and its bit in a hand mask.
+ * The public constructor remains for existing callers but does not intern.
+ */
 public class Card implements java.io.Serializable {
     private static final long serialVersionUID = 1L;
 
-    char suit;
-    int value;
+    public static final String SUITS = "CDHS"; // Suit order of the ordinals
+    public static final int VALUES_PER_SUIT = 13; // 2 through 14 (ace)
+    public static final int COUNT = 52;
+
+    private static final Card[] DECK = new Card[COUNT]; // Canonical instances by ordinal
+    private static final String[] IMAGE_KEYS = new String[COUNT]; // "<value><suit>", the card image file name
+
+    static {
+        for (int ordinal = 0; ordinal < COUNT; ordinal++) {
+            DECK[ordinal] = new Card(SUITS.charAt(ordinal / VALUES_PER_SUIT), ordinal % VALUES_PER_SUIT + 2);
+            IMAGE_KEYS[ordinal] = (ordinal % VALUES_PER_SUIT + 2) + String.valueOf(SUITS.charAt(ordinal / VALUES_PER_SUIT));
+        }
+    }
+
+    // Same serialized fields as before, so Java-serialization peers still understand each other
+    private final char suit;
+    private final int value;
 
     // Constructor to initialize card suit and value
     public Card(char suit, int value) {
@@ -11,6 +37,79 @@ public class Card implements java.io.Serializable {
         this.value = value;
     }
 
+    /**
+     * @param suit One of C, D, H, S.
+     * @param value 2 through 14, ace high.
+     * @return The canonical card.
+     */
+    public static Card of(char suit, int value) {
+        return DECK[ordinalOf(suit, value)];
+    }
+
+    /**
+     * @param ordinal Ordinal between 0 and 51.
+     * @return The canonical card.
+     */
+    public static Card ofOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= COUNT) {
+            throw new IllegalArgumentException("Card ordinal out of range: " + ordinal);
+        }
+        return DECK[ordinal];
+    }
+
+    /**
+     * @return The ordinal of a suit and value, between 0 and 51.
+     * @throws IllegalArgumentException if they do not name a card.
+     */
+    public static int ordinalOf(char suit, int value) {
+        int suitIndex;
+        switch (suit) {
+            case 'C': suitIndex = 0; break;
+            case 'D': suitIndex = 1; break;
+            case 'H': suitIndex = 2; break;
+            case 'S': suitIndex = 3; break;
+            default: suitIndex = -1; break;
+        }
+        if (suitIndex < 0 || value < 2 || value > 14) {
+            throw new IllegalArgumentException("Unknown card: " + value + suit);
+        }
+        return suitIndex * VALUES_PER_SUIT + value - 2;
+    }
+
+    /**
+     * @return This card's ordinal, between 0 and 51.
+     * @throws IllegalArgumentException for a card built with an invalid suit or value.
+     */
+    public int ordinal() {
+        return ordinalOf(suit, value);
+    }
+
+    /**
+     * @return Image name of this card, e.g. "12H" for the queen of hearts.
+     */
+    public String imageKey() {
+        return IMAGE_KEYS[ordinal()];
+    }
+
+    /**
+     * @return Image name of the card with this ordinal.
+     */
+    public static String imageKey(int ordinal) {
+        return ofOrdinal(ordinal).imageKey();
+    }
+
+    /**
+     * @param hand Cards of a hand, in any order.
+     * @return One bit per card, at the card's ordinal.
+     */
+    public static long maskOf(List<Card> hand) {
+        long mask = 0;
+        for (Card card : hand) {
+            mask |= 1L << card.ordinal();
+        }
+        return mask;
+    }
+
     // Getter for suit
     public char getSuit() {
         return suit;
@@ -20,4 +119,34 @@ public class Card implements java.io.Serializable {
     public int getValue() {
         return value;
     }
-}
\ No newline at end of file
+
+    // Replace a deserialized card with the shared instance
+    private Object readResolve() {
+        if (value < 2 || value > 14 || SUITS.indexOf(suit) < 0) {
+            return this; // Not a real card; keep it as received
+        }
+        return DECK[ordinalOf(suit, value)];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Card)) {
+            return false;
+        }
+        Card card = (Card) other;
+        return suit == card.suit && value == card.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return suit * 31 + value;
+    }
+
+    @Override
+    public String toString() {
+        return value + String.valueOf(suit);
+    }
+}
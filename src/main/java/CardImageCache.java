@@ -0,0 +1,128 @@
+// CardImageCache.java
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared store of decoded card images.
+ * All 52 faces plus the card back are decoded once, scaled to a fixed cell size and
+ * packed into a single atlas image. Image views then display a card by pointing at the
+ * atlas with a per-card viewport, so updating a card never touches the classpath.
+ */
+public final class CardImageCache {
+    static final int VALUES_PER_SUIT = Card.VALUES_PER_SUIT; // Atlas columns; rows follow Card.SUITS
+    static final int BACK_SLOT = Card.COUNT; // Slot 52 is the card back; face slots are card ordinals
+    static final int SLOT_COUNT = BACK_SLOT + 1;
+
+    // Decoded cell size; twice the 75x100 image views so cards stay sharp on HiDPI screens
+    static final int CELL_WIDTH = 150;
+    static final int CELL_HEIGHT = 200;
+
+    private static volatile CompletableFuture<CardImageCache> loading; // Shared preload, started once
+
+    private final WritableImage atlas;
+    private final Rectangle2D[] viewports = new Rectangle2D[SLOT_COUNT];
+
+    private CardImageCache() {
+        atlas = new WritableImage(VALUES_PER_SUIT * CELL_WIDTH, (Card.SUITS.length() + 1) * CELL_HEIGHT);
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            int x = (slot % VALUES_PER_SUIT) * CELL_WIDTH;
+            int y = (slot / VALUES_PER_SUIT) * CELL_HEIGHT;
+            Image face = decode(resourcePath(slot));
+            atlas.getPixelWriter().setPixels(x, y, CELL_WIDTH, CELL_HEIGHT, face.getPixelReader(), 0, 0);
+            viewports[slot] = new Rectangle2D(x, y, CELL_WIDTH, CELL_HEIGHT);
+        }
+    }
+
+    /**
+     * Start decoding the card images on a background thread.
+     * Safe to call more than once; later calls return the same future.
+     * @return Future completed with the loaded cache.
+     */
+    public static CompletableFuture<CardImageCache> preload() {
+        CompletableFuture<CardImageCache> f = loading;
+        if (f == null) {
+            synchronized (CardImageCache.class) {
+                f = loading;
+                if (f == null) {
+                    f = new CompletableFuture<>();
+                    loading = f;
+                    CompletableFuture<CardImageCache> target = f;
+                    Thread loader = new Thread(() -> {
+                        try {
+                            target.complete(new CardImageCache());
+                        } catch (Throwable t) {
+                            target.completeExceptionally(t);
+                        }
+                    }, "card-image-preload");
+                    loader.setDaemon(true);
+                    loader.start();
+                }
+            }
+        }
+        return f;
+    }
+
+    /**
+     * Get the loaded cache, waiting for the preload to finish if it is still running.
+     * @return The shared CardImageCache.
+     */
+    public static CardImageCache get() {
+        return preload().join();
+    }
+
+    /**
+     * Show a card in an image view.
+     * @param imageView The ImageView to update.
+     * @param card The Card to display. If null, the card back is shown.
+     */
+    public void apply(ImageView imageView, Card card) {
+        if (imageView.getImage() != atlas) {
+            imageView.setImage(atlas);
+        }
+        imageView.setViewport(viewports[card == null ? BACK_SLOT : slotOf(card)]);
+    }
+
+    /**
+     * @return Approximate memory held by the decoded atlas, in bytes (32-bit ARGB pixels).
+     */
+    public long getMemoryBytes() {
+        return (long) atlas.getWidth() * (long) atlas.getHeight() * 4L;
+    }
+
+    /**
+     * Map a card to its atlas slot: one row per suit, one column per value.
+     * @param card The card.
+     * @return Slot index between 0 and 51, the card's ordinal.
+     */
+    static int slotOf(Card card) {
+        return card.ordinal();
+    }
+
+    // Classpath location of the image for a slot, matching the /cards/<value><suit>.png layout
+    static String resourcePath(int slot) {
+        if (slot == BACK_SLOT) {
+            return "/cards/back.png";
+        }
+        return "/cards/" + Card.imageKey(slot) + ".png";
+    }
+
+    private static Image decode(String path) {
+        try (InputStream in = CardImageCache.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing card image " + path);
+            }
+            Image image = new Image(in, CELL_WIDTH, CELL_HEIGHT, false, true);
+            if (image.isError()) {
+                throw new IllegalStateException("Unable to decode " + path, image.getException());
+            }
+            return image;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + path, e);
+        }
+    }
+}
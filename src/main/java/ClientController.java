@@ -3,20 +3,35 @@ import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Region;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 public class ClientController {
-    @FXML private TextArea infoDisplay; // Display area for game messages
+    @FXML private Region gameRoot; // Root of the game screen, restyled by New Look
+    @FXML private ListView<String> infoDisplay; // Display area for game messages; only visible rows are rendered
     @FXML private TextField anteBetField, pairPlusBetField; // Input fields for bets
     @FXML private Label playerBalanceLabel, pAnteLabel, pPairPlusLabel, pPlayLabel; // Labels for displaying player stats
     @FXML private Button dealButton, playButton, foldButton, placeBetButton; // Action buttons
     @FXML private ImageView pCard1, pCard2, pCard3, dealerCard1, dealerCard2, dealerCard3; // Image views for displaying cards
+    @FXML private Label playerHandLabel, dealerHandLabel; // Rank of each hand, worked out locally
+    @FXML private Label equityLabel; // Expected value of playing versus folding the dealt hand
+    @FXML private CheckMenuItem quickDealItem; // When checked, Place Bet also deals; offered once the server supports BATCH
 
     private ClientNetworkThread networkThread; // Handles network communication
     private ClientMain mainApp; // Reference to the main application
+    private final GameLog log = new GameLog(); // Bounded message history shown by infoDisplay
+    private final EquityCalculator equity = new EquityCalculator();
+    private long equityRequest; // Latest equity calculation; older results are discarded. FX thread only
     private boolean newLookEnabled = false; // Toggle for UI theme
+    private boolean playableReported; // The first playable update has been reported for startup timing
+
+    // Show the log once the FXML fields are injected
+    @FXML
+    private void initialize() {
+        infoDisplay.setItems(log);
+    }
 
     // Set the main application reference
     public void setMain(ClientMain main) {
@@ -28,63 +43,135 @@ public class ClientController {
         this.networkThread = thread;
     }
 
-    /**
-     * Handle updates received from the server.
-     * @param info PokerInfo object containing update details.
-     */
-    public void handleServerUpdate(PokerInfo info) {
-        Platform.runLater(() -> {
-            // Logging for debugging
-            System.out.println("Received from server: Action = " + info.getAction() + ", Message = \"" + info.getMessage() + "\", Balance = $" + info.getPlayerBalance());
+    private final PhaseStateMachine phases = new PhaseStateMachine(); // Round phase, advanced on the FX thread
+
+    // Batches server updates onto the FX thread: one task per burst instead of one per message
+    private final UpdatePipeline updates = new UpdatePipeline(new UpdatePipeline.Sink() {
+        @Override
+        public boolean isEvent(PokerInfo info) {
+            // Results and round resets clear the screen, so they are never merged with other updates
+            GamePhase phase = GamePhase.of(info);
+            return phase == GamePhase.RESULTS || phase.startsRound();
+        }
 
-            if (info.getAction() == PokerInfo.Action.RESULTS) {
+        @Override
+        public void handleEvent(PokerInfo info) {
+            if (phases.advance(info) == GamePhase.RESULTS) {
                 // Round ended, show results screen
                 mainApp.showResultsScreen(info.getMessage(), info.getRoundWinnings());
 
                 // **Clear card images to prevent glitches**
                 clearInfoAndCards();
-
                 return;
             }
-            // Update UI elements with received information
-            infoDisplay.appendText(info.getMessage() + "\n");
-            playerBalanceLabel.setText(String.valueOf(info.getPlayerBalance()));
+            // After new game or fresh start: clear UI (winnings are kept), prompt for bets
+            offerQuickDeal();
+            showState(info);
+            clearInfoAndCards();
+            appendLog("Place your bets.\n");
+            showBetControls();
+        }
 
-            pAnteLabel.setText("$" + info.getPlayerAnte());
-            pPairPlusLabel.setText("$" + info.getPlayerPairPlus());
-            pPlayLabel.setText("$" + info.getPlayerPlay());
+        @Override
+        public void appendLog(String text) {
+            ClientController.this.appendLog(text);
+        }
 
-            // Update card images based on hands
-            updateCards(info.getPlayerHand(), info.getDealerHand(), info.isDealerCardsRevealed());
+        @Override
+        public void render(PokerInfo info) {
+            offerQuickDeal();
+            showState(info);
+            // Determine UI state from the round phase
+            switch (phases.advance(info)) {
+                case BET_PLACED:
+                    // Bets placed: enable DEAL button
+                    showDealControls();
+                    break;
+                case CARDS_DEALT:
+                    // Cards dealt: enable PLAY and FOLD buttons
+                    showPlayFoldControls();
+                    showEquity(info);
+                    break;
+                default:
+                    // Prompt for bets (initial connection, after exit, or unrecognized messages)
+                    showBetControls();
+                    break;
+            }
+            if (!playableReported && mainApp != null) {
+                playableReported = true;
+                mainApp.handPlayable();
+            }
+        }
+    }, Platform::runLater);
 
-            String msg = info.getMessage().toLowerCase();
-            // Determine UI state based on the message content
-            if (msg.contains("new game started")) {
-                // After new game: clear UI, prompt for bets
-                clearInfoAndCards();
-                infoDisplay.appendText("Place your bets.\n");
-                showBetControls();
-            } else if (msg.contains("fresh start")) {
-                // After fresh start: reset UI without resetting winnings
-                clearInfoAndCards();
-                infoDisplay.appendText("Place your bets.\n");
-                showBetControls();
-            } else if (msg.contains("place your bets")) {
-                // Initial connection or after exit: prompt for bets
-                showBetControls();
-            } else if (msg.contains("bet placed")) {
-                // Bets placed: enable DEAL button
-                showDealControls();
-            } else if (msg.contains("cards dealt")) {
-                // Cards dealt: enable PLAY and FOLD buttons
-                showPlayFoldControls();
-            } else {
-                // Default state: show bet controls
-                showBetControls();
+    /**
+     * Handle updates received from the server.
+     * Updates are queued and applied on the FX thread in batches; see UpdatePipeline.
+     * @param info PokerInfo object containing update details.
+     */
+    public void handleServerUpdate(PokerInfo info) {
+        // Logging for debugging
+        System.out.println("Received from server: Action = " + info.getAction() + ", Message = \"" + info.getMessage() + "\", Balance = $" + info.getPlayerBalance());
+        updates.submit(info);
+    }
+
+    // Add lines to the game log and keep the newest one in view
+    private void appendLog(String text) {
+        log.appendText(text);
+        if (!log.isEmpty()) {
+            infoDisplay.scrollTo(log.size() - 1);
+        }
+    }
+
+    // Offer Quick Deal only once the server has shown it understands BATCH
+    private void offerQuickDeal() {
+        if (quickDealItem != null) {
+            boolean supported = networkThread != null && networkThread.supportsBatch();
+            quickDealItem.setDisable(!supported);
+            if (!supported) {
+                quickDealItem.setSelected(false);
             }
+        }
+    }
+
+    // Work out the value of playing this hand off the FX thread and show it when ready
+    private void showEquity(PokerInfo info) {
+        if (info.getPlayerHand().size() != 3) {
+            return;
+        }
+        long request = ++equityRequest;
+        ArrayList<Card> hand = new ArrayList<>(info.getPlayerHand());
+        int ante = info.getPlayerAnte();
+        int pairPlus = info.getPlayerPairPlus();
+        StrategyTable strategy = StrategyTable.getIfLoaded();
+        if (strategy != null) {
+            equityLabel.setText(strategy.hint(hand, ante, pairPlus)); // Instant; replaced by the exact figures below
+        }
+        CompletableFuture.supplyAsync(() -> equity.evaluate(hand, ante, pairPlus)).whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println("Equity calculation failed: " + error.getMessage()); // The label keeps any table hint
+                return;
+            }
+            Platform.runLater(() -> {
+                if (request == equityRequest) {
+                    equityLabel.setText(result.describe());
+                }
+            });
         });
     }
 
+    // Update balance, bet labels and card images from a server update
+    private void showState(PokerInfo info) {
+        playerBalanceLabel.setText(String.valueOf(info.getPlayerBalance()));
+
+        pAnteLabel.setText("$" + info.getPlayerAnte());
+        pPairPlusLabel.setText("$" + info.getPlayerPairPlus());
+        pPlayLabel.setText("$" + info.getPlayerPlay());
+
+        // Update card images based on hands
+        updateCards(info.getPlayerHand(), info.getDealerHand(), info.isDealerCardsRevealed());
+    }
+
     /**
      * Update the card images on the UI based on the player's and dealer's hands.
      * @param playerHand ArrayList of player's Card objects.
@@ -95,34 +182,36 @@ public class ClientController {
         setCardImage(pCard1, playerHand.size() > 0 ? playerHand.get(0) : null);
         setCardImage(pCard2, playerHand.size() > 1 ? playerHand.get(1) : null);
         setCardImage(pCard3, playerHand.size() > 2 ? playerHand.get(2) : null);
+        playerHandLabel.setText(handLabel(playerHand));
 
         if (dealerRevealed && dealerHand.size() == 3) {
             // Reveal dealer's cards
             setCardImage(dealerCard1, dealerHand.get(0));
             setCardImage(dealerCard2, dealerHand.get(1));
             setCardImage(dealerCard3, dealerHand.get(2));
+            dealerHandLabel.setText(handLabel(dealerHand));
         } else {
             // Hide dealer's cards
             setCardImage(dealerCard1, null);
             setCardImage(dealerCard2, null);
             setCardImage(dealerCard3, null);
+            dealerHandLabel.setText("");
         }
     }
 
+    // Name of a complete hand, e.g. "Pair of Queens", or empty while the hand is not dealt
+    private static String handLabel(ArrayList<Card> hand) {
+        return hand.size() == 3 ? HandEvaluator.label(HandLookupTable.score(hand)) : "";
+    }
+
     /**
      * Set the image for a given ImageView based on the Card.
      * @param imageView The ImageView to update.
      * @param card The Card object. If null, display the card back.
      */
     private void setCardImage(ImageView imageView, Card card) {
-        if (card == null) {
-            // Display card back image
-            imageView.setImage(new Image(getClass().getResourceAsStream("/cards/back.png")));
-        } else {
-            // Construct image path based on card value and suit
-            String imagePath = "/cards/" + card.getValue() + card.getSuit() + ".png";
-            imageView.setImage(new Image(getClass().getResourceAsStream(imagePath)));
-        }
+        // Images are decoded once at startup; this only moves the view onto the card's atlas cell
+        CardImageCache.get().apply(imageView, card);
     }
 
     /**
@@ -130,7 +219,7 @@ public class ClientController {
      * @param msg The message to display.
      */
     public void showMessage(String msg) {
-        Platform.runLater(() -> infoDisplay.appendText(msg + "\n"));
+        updates.submitLog(msg); // Goes through the pipeline so it stays in order with server messages
     }
 
     /**
@@ -146,6 +235,25 @@ public class ClientController {
             req.setAction(PokerInfo.Action.PLACE_BET);
             req.setAnteBetRequest(ante);
             req.setPairPlusBetRequest(pp);
+            if (quickDealItem != null && quickDealItem.isSelected()) {
+                PokerInfo deal = new PokerInfo();
+                deal.setAction(PokerInfo.Action.DEAL);
+                if (!networkThread.supportsBatch()) {
+                    // Older servers cannot read a BATCH; send both, still without waiting in between
+                    networkThread.sendInfo(req);
+                    networkThread.sendInfo(deal);
+                    return;
+                }
+                // Pipeline the deal behind the bet: one message out, both responses back together
+                networkThread.requestBatch(Arrays.asList(req, deal)).get(1).whenComplete((response, error) -> {
+                    if (error != null) {
+                        showMessage("Quick Deal failed: " + error.getMessage() + ". Press Deal to continue.");
+                    } else if (GamePhase.of(response) != GamePhase.CARDS_DEALT) {
+                        showMessage("Quick Deal could not deal this hand.");
+                    }
+                });
+                return;
+            }
             networkThread.sendInfo(req);
         } catch (NumberFormatException e) {
             showMessage("Enter valid bet amounts.");
@@ -208,12 +316,12 @@ public class ClientController {
      */
     @FXML
     private void handleNewLook() {
-        Region root = (Region) infoDisplay.getScene().getRoot();
+        Region root = gameRoot; // Not the scene root, which also holds the results overlay
 
         if (newLookEnabled) {
             // Revert to the original style
             root.setStyle("-fx-background-color: green; -fx-font-family: Arial; -fx-font-size: 14px;");
-            infoDisplay.setStyle("-fx-text-fill: black;");
+            infoDisplay.setStyle("");
             placeBetButton.setStyle(""); // Reset button styles
             dealButton.setStyle("");
             playButton.setStyle("");
@@ -222,7 +330,7 @@ public class ClientController {
         } else {
             // Apply the new look
             root.setStyle("-fx-background-color: linear-gradient(to bottom, #ff7f50, #ff4500); -fx-font-family: 'Courier New'; -fx-font-size: 16px;");
-            infoDisplay.setStyle("-fx-text-fill: white; -fx-control-inner-background: #333333;");
+            infoDisplay.setStyle("-fx-control-inner-background: #333333;"); // Cell text turns light on a dark background
             placeBetButton.setStyle("-fx-background-color: #ff4500; -fx-text-fill: white; -fx-font-weight: bold;");
             dealButton.setStyle("-fx-background-color: #ff4500; -fx-text-fill: white; -fx-font-weight: bold;");
             playButton.setStyle("-fx-background-color: #32cd32; -fx-text-fill: white; -fx-font-weight: bold;");
@@ -240,17 +348,39 @@ public class ClientController {
         mainApp.exitGame();
     }
 
+    /**
+     * Return the screen to its starting state so it can be reused for a new session.
+     * Called when the game screen is shown for a new connection; the New Look setting is kept.
+     */
+    public void reset() {
+        phases.reset();
+        clearInfoAndCards();
+        playerBalanceLabel.setText("");
+        showBetControls();
+    }
+
+    /**
+     * Write out the game log's spill file, e.g. before the client exits; the display is cleared.
+     */
+    public void closeLog() {
+        log.close();
+    }
+
     /**
      * Clear the info display and reset card images and labels.
      */
     public void clearInfoAndCards() {
-        infoDisplay.clear();
+        log.clear();
         setCardImage(pCard1, null);
         setCardImage(pCard2, null);
         setCardImage(pCard3, null);
         setCardImage(dealerCard1, null);
         setCardImage(dealerCard2, null);
         setCardImage(dealerCard3, null);
+        playerHandLabel.setText("");
+        dealerHandLabel.setText("");
+        equityRequest++; // Drop any calculation still running for the old hand
+        equityLabel.setText("");
 
         // Reset the displayed bets
         pAnteLabel.setText("$0");
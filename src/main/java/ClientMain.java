@@ -1,36 +1,53 @@
 // ClientMain.java
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 // Main application class for the client
 public class ClientMain extends Application {
     private Stage primaryStage;
+    private ScreenManager screens; // Loads each screen once and switches between them
     private ClientController gameController; // Controller for the game screen
     private ResultsController resultsController; // Controller for the results screen
     private ClientNetworkThread networkThread; // Network thread for communication
     private WelcomeClientController welcomeController; // Controller for the welcome screen
+    private final StartupWarmup warmup = new StartupWarmup(); // Background startup work and its timing
 
     @Override
     public void start(Stage stage) throws Exception {
         primaryStage = stage;
+        screens = new ScreenManager(stage);
+        // Decode card images in the background while the user connects (also timed by the warm-up)
+        CardImageCache.preload().thenAccept(cache ->
+                System.out.println("Card images loaded (" + cache.getMemoryBytes() / 1024 + " KB)"));
         showWelcomeScreen(); // Display the welcome screen on startup
+        warmup.mark("welcome shown");
+        warmup.start(screens); // Prepare the game screen in the background while the user types an address
+        String replay = System.getProperty("poker.replay");
+        if (replay != null) {
+            replaySession(replay);
+        }
+    }
+
+    /**
+     * Play a recorded session into the game screen instead of connecting to a server.
+     * @param path Hand history directory or segment; see SessionReplay.
+     */
+    public void replaySession(String path) throws IOException {
+        gameController = screens.getGameController();
+        gameController.reset();
+        gameController.setMain(this);
+        screens.showGame();
+        SessionReplay.replayInto(Paths.get(path), gameController, screens.getGameScene());
     }
 
     /**
      * Display the welcome screen where users can connect to the server.
      */
     public void showWelcomeScreen() throws Exception {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/WelcomeClient.fxml"));
-        Scene scene = new Scene(loader.load(), 500, 300);
-        scene.getRoot().setStyle("-fx-background-color: green;");
-        welcomeController = loader.getController();
+        welcomeController = screens.showWelcome();
         welcomeController.setMain(this);
-
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("Three Card Poker Client - Welcome");
-        primaryStage.show();
     }
 
     /**
@@ -40,44 +57,64 @@ public class ClientMain extends Application {
      */
     public void showGameScreen(String host, int port) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/ClientGUI.fxml"));
-            Scene scene = new Scene(loader.load(), 900, 700);
-            gameController = loader.getController();
-
-            // Initialize and start the network thread
-            networkThread = new ClientNetworkThread(host, port, gameController);
-            networkThread.start();
-            gameController.setNetworkThread(networkThread);
-            gameController.setMain(this);
-
-            primaryStage.setScene(scene);
-            primaryStage.setTitle("Three Card Poker Client - Game");
-            primaryStage.show();
+            gameController = screens.getGameController();
+
+            // Initialize and start the network thread (on the shared NIO engine if poker.transport=nio)
+            networkThread = NioTransport.isSelected()
+                    ? new ClientNetworkThread(host, port, gameController, NioTransport.shared())
+                    : new ClientNetworkThread(host, port, gameController);
+            startGame();
         } catch (Exception e) {
             welcomeController.showError("Error loading game screen.");
         }
     }
 
     /**
-     * Display the game screen directly, typically after a new game request.
+     * Display the game screen on a connection the welcome screen already opened.
+     * @param connection Open server connection, handed over to the network thread.
      */
-    public void showGameScreenDirect() {
+    public void showGameScreen(ServerConnection connection) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/ClientGUI.fxml"));
-            Scene scene = new Scene(loader.load(), 900, 700);
-            gameController = loader.getController();
-
-            // Update the network thread's controller to the new controller
-            if (networkThread != null) {
-                networkThread.setController(gameController);
-                gameController.setNetworkThread(networkThread);
+            gameController = screens.getGameController();
+
+            networkThread = new ClientNetworkThread(connection, gameController);
+            startGame();
+        } catch (Exception e) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // Already closed
             }
+            welcomeController.showError("Error loading game screen.");
+        }
+    }
+
+    // Start the network thread and switch to the game screen, cleared of any earlier session
+    private void startGame() throws IOException {
+        gameController.reset();
+        networkThread.setHistory(HandHistoryRecorder.fromSystemProperties()); // Only if poker.history names a directory
+        ActionLatencyTracker.publish(networkThread.getLatency()); // JMX: projectThreeClient:type=ActionLatency
+        networkThread.start();
+        gameController.setNetworkThread(networkThread);
+        gameController.setMain(this);
+        screens.showGame();
+        warmup.mark("game screen shown");
+    }
 
-            gameController.setMain(this);
+    /**
+     * Called by the game screen each time it renders an update the player can act on;
+     * the first call marks the end of startup.
+     */
+    public void handPlayable() {
+        warmup.mark("first hand playable");
+    }
 
-            primaryStage.setScene(scene);
-            primaryStage.setTitle("Three Card Poker Client - Game");
-            primaryStage.show();
+    /**
+     * Display the game screen directly, typically after a new game request.
+     */
+    public void showGameScreenDirect() {
+        try {
+            gameController = screens.showGame();
 
             // Reset UI for a new game
             gameController.clearInfoAndCards();
@@ -96,15 +133,8 @@ public class ClientMain extends Application {
      */
     public void showResultsScreen(String msg, int roundWinnings) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/ResultsScreen.fxml"));
-            Scene scene = new Scene(loader.load());
-            resultsController = loader.getController();
+            resultsController = screens.showResults(msg, roundWinnings);
             resultsController.setMain(this);
-            resultsController.setResults(msg, roundWinnings);
-
-            primaryStage.setScene(scene);
-            primaryStage.setTitle("Three Card Poker Client - Results");
-            primaryStage.show();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -140,7 +170,10 @@ public class ClientMain extends Application {
             PokerInfo req = new PokerInfo();
             req.setAction(PokerInfo.Action.EXIT);
             networkThread.sendInfo(req);
-            networkThread.interrupt(); // Terminate the network thread
+            networkThread.shutdown(); // Terminate the network thread once EXIT is written
+        }
+        if (gameController != null) {
+            gameController.closeLog(); // Nothing buffered for the spill file is lost
         }
         // Return to welcome screen
         try {
@@ -150,6 +183,16 @@ public class ClientMain extends Application {
         }
     }
 
+    /**
+     * Called when the window is closed; keep the game log's spill file complete.
+     */
+    @Override
+    public void stop() {
+        if (gameController != null) {
+            gameController.closeLog();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args); // Launch the JavaFX application
     }
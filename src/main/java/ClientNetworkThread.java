@@ -1,25 +1,99 @@
 // ClientNetworkThread.java
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-// Thread class to handle network communication with the server
+// Thread class to handle network communication with the server.
+// When the connection drops it reconnects with exponential backoff (see ReconnectBackoff),
+// presents the server's resume token to get the same table back, and then sends whatever the
+// player did while offline.
 public class ClientNetworkThread extends Thread {
+    static final int OFFLINE_CAPACITY = 32; // Messages kept while reconnecting
+
     private String host; // Server IP address
     private int port; // Server port number
-    private ObjectInputStream in; // Input stream for receiving data
-    private ObjectOutputStream out; // Output stream for sending data
+    private final WireFormat wireFormat; // Encoding used on the connection
+    private volatile PokerStream stream; // Sends and receives PokerInfo messages (blocking mode)
+    private final NioTransport transport; // Shared non-blocking engine, or null for a blocking socket
+    private ServerConnection handoff; // Already open connection to use first, or null to connect in run
+    private volatile NioTransport.Session session; // This client's session on the transport (NIO mode)
     private volatile ClientController controller; // Reference to the controller to handle updates
+    private final GameStateModel stateModel = new GameStateModel(); // Rebuilds full updates from server deltas
+    private volatile OutboundQueue outbound; // Writes blocking-mode messages off the caller's thread
+    private final RequestTracker tracker = new RequestTracker(); // Pipelined requests awaiting their responses
+    private final ReconnectBackoff backoff = ReconnectBackoff.fromSystemProperties();
+    private final ArrayDeque<PokerInfo> offline = new ArrayDeque<>(); // Sent while disconnected; also the send lock
+    private volatile boolean online; // CONNECT has gone out on the current connection
+    private volatile boolean stopped; // No further connections will be made
+    private volatile String resumeToken; // Latest token from the server, sent with CONNECT to resume
+    private volatile int capabilities; // CAP_* bits the server advertised on the current connection
+    private volatile Socket socket; // Current blocking socket, closed to abandon the connection
+    private volatile Thread reconnector; // Waits out the backoff in NIO mode
+    private volatile HandHistoryRecorder history; // Records every message sent and received, or null
+    private final ActionLatencyTracker latency = new ActionLatencyTracker(); // Round trip of each request type
 
     /**
      * Constructor to initialize network thread with server details and controller.
+     * The wire format is taken from the poker.wire system property.
      * @param host Server IP address.
      * @param port Server port number.
      * @param controller ClientController instance to handle server updates.
      */
     public ClientNetworkThread(String host, int port, ClientController controller) {
+        this(host, port, controller, WireFormat.fromSystemProperty());
+    }
+
+    /**
+     * Constructor with an explicit wire format.
+     * @param host Server IP address.
+     * @param port Server port number.
+     * @param controller ClientController instance to handle server updates.
+     * @param wireFormat Encoding to use on the connection.
+     */
+    public ClientNetworkThread(String host, int port, ClientController controller, WireFormat wireFormat) {
         this.host = host;
         this.port = port;
         this.controller = controller;
+        this.wireFormat = wireFormat;
+        this.transport = null;
+        this.handoff = null;
+    }
+
+    /**
+     * Constructor that runs the connection on a shared non-blocking transport instead of
+     * a dedicated blocking socket. The BINARY wire format is always used in this mode.
+     * @param host Server IP address.
+     * @param port Server port number.
+     * @param controller ClientController instance to handle server updates.
+     * @param transport NioTransport that will drive the connection.
+     */
+    public ClientNetworkThread(String host, int port, ClientController controller, NioTransport transport) {
+        this.host = host;
+        this.port = port;
+        this.controller = controller;
+        this.wireFormat = WireFormat.BINARY;
+        this.transport = transport;
+        this.handoff = null;
+    }
+
+    /**
+     * Constructor that takes over a connection the welcome screen already opened, so the
+     * game session runs on that socket instead of connecting a second time. Reconnects open
+     * new connections to the same server.
+     * @param connection Open connection; blocking or for a NioTransport.
+     * @param controller ClientController instance to handle server updates.
+     */
+    public ClientNetworkThread(ServerConnection connection, ClientController controller) {
+        this.host = connection.getHost();
+        this.port = connection.getPort();
+        this.controller = controller;
+        this.wireFormat = connection.getWireFormat();
+        this.transport = connection.getTransport();
+        this.handoff = connection;
     }
 
     /**
@@ -30,47 +104,382 @@ public class ClientNetworkThread extends Thread {
         this.controller = newController;
     }
 
+    /**
+     * Record every message sent and received from now on. The recorder is closed by shutdown.
+     * @param recorder Hand history recorder, or null to stop recording.
+     */
+    public void setHistory(HandHistoryRecorder recorder) {
+        this.history = recorder;
+    }
+
     @Override
     public void run() {
+        if (transport != null) {
+            connectNonBlocking();
+            return;
+        }
+        try {
+            do {
+                try {
+                    // Use the welcome screen's connection the first time, a fresh one after that
+                    ServerConnection open = takeHandoff();
+                    if (open == null) {
+                        open = ServerConnection.openBlocking(host, port, wireFormat, ServerConnection.connectTimeoutMillis());
+                    }
+                    socket = open.getSocket();
+                    stream = open.getStream();
+                    outbound = new OutboundQueue(stream, this::sendFailed);
+                    goOnline();
+
+                    PokerInfo response;
+                    // Continuously listen for server messages
+                    while ((response = stream.read()) != null) {
+                        deliver(response);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Network error: " + e.getMessage());
+                } finally {
+                    goOffline();
+                }
+            } while (awaitReconnect());
+        } finally {
+            tracker.failAll(new IOException("Connection closed"));
+        }
+    }
+
+    /**
+     * Register this client's connection with the NIO transport. The transport's I/O thread
+     * delivers server messages, so this thread finishes as soon as the session is queued;
+     * reconnects run on a short-lived "client-reconnect" thread.
+     */
+    private void connectNonBlocking() {
         try {
-            Socket socket = new Socket(host, port); // Establish connection to the server
-            out = new ObjectOutputStream(socket.getOutputStream());
-            in  = new ObjectInputStream(socket.getInputStream());
-
-            // Send CONNECT action initially to notify the server
-            PokerInfo connectInfo = new PokerInfo();
-            connectInfo.setAction(PokerInfo.Action.CONNECT);
-            sendInfo(connectInfo);
-
-            PokerInfo response;
-            // Continuously listen for server messages
-            while ((response = (PokerInfo) in.readObject()) != null) {
-                ClientController currentController = this.controller;
-                if (currentController != null) {
-                    currentController.handleServerUpdate(response); // Delegate handling to the controller
+            NioTransport.Listener listener = new NioTransport.Listener() {
+                @Override
+                public void onConnected(NioTransport.Session s) {
+                    session = s;
+                    goOnline();
                 }
+
+                @Override
+                public void onMessage(NioTransport.Session s, PokerInfo info) {
+                    deliver(info);
+                }
+
+                @Override
+                public void onClosed(NioTransport.Session s, Exception cause) {
+                    synchronized (offline) {
+                        online = false;
+                        session = null;
+                    }
+                    backoff.disconnected();
+                    latency.clear(); // Nothing sent on this connection will be answered now
+                    if (cause != null) {
+                        System.err.println("Network error: " + cause.getMessage());
+                    }
+                    scheduleReconnect();
+                }
+            };
+            ServerConnection open = takeHandoff();
+            if (open != null) {
+                transport.adopt(open.getChannel(), listener);
+            } else {
+                transport.connect(new InetSocketAddress(host, port), listener);
+            }
+        } catch (IOException e) {
+            System.err.println("Network error: " + e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    // Try again on a new thread after the backoff delay, or give up for good
+    private void scheduleReconnect() {
+        Thread retry = new Thread(() -> {
+            if (awaitReconnect()) {
+                connectNonBlocking();
+            } else {
+                tracker.failAll(new IOException("Connection closed"));
+            }
+        }, "client-reconnect");
+        retry.setDaemon(true);
+        reconnector = retry;
+        retry.start();
+    }
+
+    private synchronized ServerConnection takeHandoff() {
+        ServerConnection open = handoff;
+        handoff = null;
+        return open;
+    }
+
+    // Announce ourselves on a new connection, resuming the old session if there was one,
+    // then send what queued up while offline
+    private void goOnline() {
+        PokerInfo connectInfo = new PokerInfo();
+        connectInfo.setAction(PokerInfo.Action.CONNECT);
+        connectInfo.setResumeToken(resumeToken);
+        backoff.connected();
+        capabilities = 0; // Possibly a different server; wait for it to say what it supports
+        synchronized (offline) {
+            online = true;
+            transmit(connectInfo);
+            PokerInfo pending;
+            while ((pending = offline.poll()) != null) {
+                if (pending.getAction() != PokerInfo.Action.CONNECT) {
+                    transmit(pending);
+                }
+            }
+        }
+    }
+
+    // Blocking mode: take back what the writer never got out so it is sent after reconnecting
+    private void goOffline() {
+        backoff.disconnected();
+        latency.clear(); // Unanswered requests are resent after the reconnect and timed again
+        OutboundQueue queue = outbound;
+        synchronized (offline) {
+            online = false;
+            if (queue != null && !stopped) {
+                List<PokerInfo> unsent = queue.abort();
+                for (int i = unsent.size() - 1; i >= 0; i--) {
+                    offline.addFirst(unsent.get(i));
+                }
+            }
+        }
+        if (queue != null && stopped) {
+            queue.close(); // Let the EXIT already queued by shutdown go out
+            try {
+                queue.awaitTermination(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Wait before the next connection attempt.
+     * @return true to try again, false once shut down or out of attempts.
+     */
+    private boolean awaitReconnect() {
+        if (stopped) {
+            return false;
+        }
+        long delay = backoff.nextDelayMillis();
+        if (delay < 0) {
+            stopped = true;
+            synchronized (offline) {
+                offline.clear();
             }
-        } catch (Exception e) {
             if (controller != null) {
                 controller.showMessage("Connection lost or unable to connect.");
             }
-            System.err.println("Network error: " + e.getMessage());
+            return false;
+        }
+        if (controller != null) {
+            controller.showMessage("Connection lost. Reconnecting in " + delay + " ms (attempt " + backoff.getAttempts() + ").");
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            return false;
+        }
+        return !stopped;
+    }
+
+    // Hand a server message to the current controller, patched into a complete update
+    private void deliver(PokerInfo message) {
+        HandHistoryRecorder recorder = history;
+        if (recorder != null) {
+            recorder.record(HandHistoryRecorder.Direction.RECEIVED, message); // As received, before deltas are applied
+        }
+        if (message.getCapabilities() != 0) {
+            capabilities = message.getCapabilities(); // Sent with the CONNECT response
+        }
+        PokerInfo response = stateModel.apply(message);
+        latency.responseReceived(response != null ? response : message); // Complete state, so the phase is known
+        if (response == null) {
+            // A delta went missing; drop deltas until the snapshot we ask for arrives
+            if (stateModel.claimResync()) {
+                PokerInfo resync = new PokerInfo();
+                resync.setAction(PokerInfo.Action.RESYNC);
+                sendInfo(resync);
+            }
+            return;
+        }
+        if (response.getResumeToken() != null) {
+            resumeToken = response.getResumeToken();
+        }
+        tracker.complete(response);
+        ClientController currentController = this.controller;
+        if (currentController != null) {
+            currentController.handleServerUpdate(response); // Delegate handling to the controller
         }
     }
 
     /**
      * Send a PokerInfo object to the server.
+     * Never blocks on the socket: the message is queued for the writer thread, waiting briefly
+     * for room if the server has stopped reading. While reconnecting it is held and sent once
+     * the session is back.
      * @param info The PokerInfo object containing action and data.
      */
     public void sendInfo(PokerInfo info) {
-        try {
-            out.writeObject(info);
-            out.flush();
-        } catch (IOException e) {
+        send(info);
+    }
+
+    /**
+     * Send several requests as one BATCH message without waiting for any response.
+     * The server handles them in order and answers each one separately; if one is refused,
+     * the ones after it are skipped and answered as such. Needs a server that echoes
+     * correlation ids.
+     * @param requests The requests, in the order they should be handled.
+     * @return One future per request, completed with the response to that request.
+     */
+    public List<CompletableFuture<PokerInfo>> requestBatch(List<PokerInfo> requests) {
+        List<CompletableFuture<PokerInfo>> responses = new ArrayList<>(requests.size());
+        for (PokerInfo request : requests) {
+            responses.add(tracker.register(request));
+        }
+        PokerInfo batch = new PokerInfo();
+        batch.setAction(PokerInfo.Action.BATCH);
+        batch.setBatch(new ArrayList<>(requests));
+        if (!send(batch)) {
+            IOException notSent = new IOException("Batch was not sent");
+            for (PokerInfo request : requests) {
+                tracker.fail(request, notSent);
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * BATCH only exists in this client's Action enum, so a server that does not know it cannot
+     * even deserialize one. Only servers that advertise PokerInfo.CAP_BATCH on their CONNECT
+     * response are sent one.
+     * @return true if the current server has said it understands BATCH.
+     */
+    public boolean supportsBatch() {
+        return (capabilities & PokerInfo.CAP_BATCH) != 0;
+    }
+
+    /**
+     * @return Pipelined requests still waiting for a response.
+     */
+    public int getOutstandingRequests() {
+        return tracker.getOutstanding();
+    }
+
+    private boolean send(PokerInfo info) {
+        if (info.getAction() == PokerInfo.Action.EXIT) {
+            stopped = true; // The server hangs up after EXIT; that is not a connection failure
+        }
+        synchronized (offline) {
+            if (online) {
+                return transmit(info);
+            }
+            if (stopped || offline.size() >= OFFLINE_CAPACITY) {
+                if (controller != null) {
+                    controller.showMessage("Not connected to server.");
+                }
+                return false;
+            }
+            offline.add(info);
+            return true;
+        }
+    }
+
+    // Hand a message to the current connection; callers hold the send lock
+    private boolean transmit(PokerInfo info) {
+        HandHistoryRecorder recorder = history;
+        if (recorder != null) {
+            recorder.record(HandHistoryRecorder.Direction.SENT, info);
+        }
+        NioTransport.Session current = session;
+        long mark = latency.requestSent(info);
+        if (current != null) {
+            current.send(info); // Non-blocking; written by the transport's I/O thread
+            return true;
+        }
+        OutboundQueue queue = outbound;
+        if (queue == null) {
+            latency.cancel(mark);
+            if (controller != null) {
+                controller.showMessage("Not connected to server.");
+            }
+            return false;
+        }
+        if (!queue.send(info)) {
+            latency.cancel(mark);
             if (controller != null) {
-                controller.showMessage("Error sending to server.");
+                controller.showMessage("Server is not responding. " + info.getAction() + " was not sent.");
+            }
+            System.err.println("Send queue full or closed, dropped " + info.getAction());
+            return false;
+        }
+        return true;
+    }
+
+    // Called on the writer thread when a write fails; closing the socket wakes the reader so it reconnects
+    private void sendFailed(IOException e) {
+        System.err.println("Error sending info to server: " + e.getMessage());
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // Already closed
             }
-            System.err.println("Error sending info to server: " + e.getMessage());
         }
     }
+
+    /**
+     * Stop the connection once every queued message has been written, log the send metrics
+     * and close the hand history.
+     * No reconnect is attempted after this.
+     */
+    public void shutdown() {
+        stopped = true;
+        Thread retry = reconnector;
+        if (retry != null) {
+            retry.interrupt();
+        }
+        OutboundQueue queue = outbound;
+        if (queue != null) {
+            queue.close();
+            System.out.println("Outbound: " + queue.describe());
+        }
+        HandHistoryRecorder recorder = history;
+        if (recorder != null) {
+            try {
+                recorder.close(); // Writes what is buffered, including the EXIT
+                System.out.println("Hand history: " + recorder.getRecorded() + " messages recorded, "
+                        + recorder.getDropped() + " dropped, in " + recorder.getDirectory());
+            } catch (IOException e) {
+                System.err.println("Error writing hand history: " + e.getMessage());
+            }
+        }
+        interrupt();
+    }
+
+    /**
+     * @return Round-trip times of this client's requests, by action.
+     */
+    public ActionLatencyTracker getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The blocking-mode send queue, or null before the connection is open or in NIO mode.
+     */
+    public OutboundQueue getOutbound() {
+        return outbound;
+    }
 }
\ No newline at end of file
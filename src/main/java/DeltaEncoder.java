@@ -0,0 +1,42 @@
+// DeltaEncoder.java
+
+/**
+ * Server side of the delta protocol for one connection: numbers each outgoing update and
+ * replaces it with a delta against the previous one, sending a full snapshot every
+ * snapshotInterval updates and whenever the client asks for one.
+ */
+public class DeltaEncoder {
+    private final int snapshotInterval;
+    private PokerInfo lastSent; // Complete state the client holds after the last update
+    private long sequence;
+    private int sinceSnapshot;
+
+    /**
+     * @param snapshotInterval Send a full snapshot at least this often, in updates.
+     */
+    public DeltaEncoder(int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1");
+        }
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * @param full The complete update the server would otherwise send.
+     * @param forceSnapshot true to send the full state, e.g. in answer to RESYNC.
+     * @return The numbered snapshot or delta to put on the wire.
+     */
+    public PokerInfo encode(PokerInfo full, boolean forceSnapshot) {
+        sequence++;
+        PokerInfo out;
+        if (lastSent == null || forceSnapshot || ++sinceSnapshot >= snapshotInterval) {
+            out = full;
+            sinceSnapshot = 0;
+        } else {
+            out = GameStateModel.diff(lastSent, full);
+        }
+        out.setSequence(sequence);
+        lastSent = full;
+        return out;
+    }
+}
@@ -0,0 +1,195 @@
+// EquityCalculator.java
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact expected value of playing versus folding a dealt hand. Every dealer hand that can be
+ * made from the 49 unseen cards (18,424 of them) is ranked with HandLookupTable and settled
+ * with Paytable, including the dealer-qualifies rule, the ante bonus and the pair plus bet.
+ * The enumeration is split by the dealer's lowest card into fork/join tasks, so it runs on
+ * every core of the pool.
+ */
+public class EquityCalculator {
+    public static final int DEALER_HANDS = 18_424; // 49 choose 3
+    static final int SPLIT_THRESHOLD = 4; // Lowest-card values handled by one task without splitting
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Calculator running on the common fork/join pool.
+     */
+    public EquityCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool the enumeration is split across.
+     */
+    public EquityCalculator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param hand The player's three cards.
+     * @param ante Ante bet; the play bet equals it.
+     * @param pairPlus Pair plus bet, or 0.
+     * @return Outcome counts and expected values of both decisions.
+     */
+    public Equity evaluate(List<Card> hand, int ante, int pairPlus) {
+        if (hand == null || hand.size() != 3) {
+            throw new IllegalArgumentException("A three card hand is required");
+        }
+        long start = System.nanoTime();
+        long seen = Card.maskOf(hand);
+        if (Long.bitCount(seen) != 3) {
+            throw new IllegalArgumentException("The hand holds the same card twice");
+        }
+        int[] unseen = new int[Card.COUNT - 3];
+        int n = 0;
+        for (int ordinal = 0; ordinal < Card.COUNT; ordinal++) {
+            if ((seen & (1L << ordinal)) == 0) {
+                unseen[n++] = ordinal;
+            }
+        }
+        int playerScore = HandLookupTable.score(hand);
+        long[] counts = pool.invoke(new Showdowns(unseen, playerScore, 0, unseen.length - 2));
+        return new Equity(playerScore, ante, pairPlus, counts, System.nanoTime() - start);
+    }
+
+    // Counts dealer hands by outcome for the dealer hands whose lowest unseen card index is in [from, to)
+    private static final class Showdowns extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] unseen;
+        private final int playerScore;
+        private final int from;
+        private final int to;
+
+        Showdowns(int[] unseen, int playerScore, int from, int to) {
+            this.unseen = unseen;
+            this.playerScore = playerScore;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                // Low first cards have far more hands after them than high ones; small leaves keep the halves balanced
+                int mid = (from + to) >>> 1;
+                Showdowns low = new Showdowns(unseen, playerScore, from, mid);
+                Showdowns high = new Showdowns(unseen, playerScore, mid, to);
+                high.fork();
+                long[] counts = low.compute();
+                long[] other = high.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other[i];
+                }
+                return counts;
+            }
+            long notQualified = 0;
+            long wins = 0;
+            long losses = 0;
+            long pushes = 0;
+            int n = unseen.length;
+            for (int a = from; a < to; a++) {
+                for (int b = a + 1; b < n - 1; b++) {
+                    for (int c = b + 1; c < n; c++) {
+                        int dealerScore = HandLookupTable.score(unseen[a], unseen[b], unseen[c]);
+                        if (!HandEvaluator.dealerQualifies(dealerScore)) {
+                            notQualified++;
+                        } else if (playerScore > dealerScore) {
+                            wins++;
+                        } else if (playerScore < dealerScore) {
+                            losses++;
+                        } else {
+                            pushes++;
+                        }
+                    }
+                }
+            }
+            return new long[] {notQualified, wins, losses, pushes};
+        }
+    }
+
+    /**
+     * Result of an equity calculation. Probabilities are over all dealer hands.
+     */
+    public static final class Equity {
+        private final long notQualified;
+        private final long wins;
+        private final long losses;
+        private final long pushes;
+        private final double playEv;
+        private final double foldEv;
+        private final long elapsedNanos;
+
+        Equity(int playerScore, int ante, int pairPlus, long[] counts, long elapsedNanos) {
+            this.notQualified = counts[0];
+            this.wins = counts[1];
+            this.losses = counts[2];
+            this.pushes = counts[3];
+            this.elapsedNanos = elapsedNanos;
+            double total = getDealerHands();
+            double bonuses = Paytable.anteBonus(playerScore) * ante + Paytable.pairPlusResult(playerScore, pairPlus);
+            // Paytable.showdown for each outcome, weighted by how many dealer hands produce it
+            this.playEv = bonuses + (notQualified * ante + wins * 2.0 * ante - losses * 2.0 * ante) / total;
+            this.foldEv = Paytable.foldWinnings(ante, pairPlus);
+        }
+
+        /**
+         * @return Expected net result of playing, in dollars.
+         */
+        public double getPlayEv() {
+            return playEv;
+        }
+
+        /**
+         * @return Net result of folding, in dollars; folding has no uncertainty.
+         */
+        public double getFoldEv() {
+            return foldEv;
+        }
+
+        public boolean shouldPlay() {
+            return playEv >= foldEv;
+        }
+
+        public long getDealerHands() {
+            return notQualified + wins + losses + pushes;
+        }
+
+        public double getWinProbability() {
+            return wins / (double) getDealerHands();
+        }
+
+        public double getLossProbability() {
+            return losses / (double) getDealerHands();
+        }
+
+        public double getPushProbability() {
+            return pushes / (double) getDealerHands();
+        }
+
+        public double getDealerNotQualifiedProbability() {
+            return notQualified / (double) getDealerHands();
+        }
+
+        /**
+         * @return Time the calculation took, in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return One-line summary for the player.
+         */
+        public String describe() {
+            return String.format("%s: Play EV %+.2f vs Fold %+.2f (win %.1f%%, dealer does not qualify %.1f%%)",
+                    shouldPlay() ? "Play" : "Fold", playEv, foldEv,
+                    100 * getWinProbability(), 100 * getDealerNotQualifiedProbability());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+// GameLog.java
+import javafx.collections.ObservableListBase;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Game message log with a fixed capacity, shown through a ListView so only the visible rows
+ * are ever laid out. Lines live in a ring buffer: appending is O(1), and once the log is full
+ * each new line evicts the oldest, so memory stays constant however long the session runs.
+ * Evicted and cleared lines, and on close the lines still shown, can optionally be appended to a
+ * spill file to keep the full record.
+ *
+ * Capacity and spill file come from the poker.logCapacity and poker.logSpill system properties.
+ * Like any list behind a control, it must only be changed on the JavaFX Application Thread.
+ */
+public class GameLog extends ObservableListBase<String> implements AutoCloseable {
+    static final int DEFAULT_CAPACITY = 500;
+
+    private final String[] lines;
+    private int head; // Index of the oldest line
+    private int size;
+    private final Path spillPath;
+    private BufferedWriter spill; // Opened on first eviction
+    private boolean spillFailed; // Stop trying after the first write error
+    private long spilled;
+
+    /**
+     * Create a log configured from system properties.
+     */
+    public GameLog() {
+        this(Integer.getInteger("poker.logCapacity", DEFAULT_CAPACITY),
+                System.getProperty("poker.logSpill") != null ? Paths.get(System.getProperty("poker.logSpill")) : null);
+    }
+
+    /**
+     * @param capacity Lines kept in memory.
+     * @param spillPath File that receives lines as they leave the log, or null to drop them.
+     */
+    public GameLog(int capacity, Path spillPath) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.lines = new String[capacity];
+        this.spillPath = spillPath;
+    }
+
+    /**
+     * Append text, one entry per line; blank lines are skipped.
+     * @param text One or more lines separated by newlines.
+     */
+    public void appendText(String text) {
+        int start = 0;
+        int length = text.length();
+        beginChange();
+        try {
+            while (start < length) {
+                int end = text.indexOf('\n', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    addLine(text.substring(start, end));
+                }
+                start = end + 1;
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    // Store a line, evicting the oldest one if the buffer is full; part of an open change
+    private void addLine(String line) {
+        if (size == lines.length) {
+            String oldest = lines[head];
+            lines[head] = line;
+            head = (head + 1) % lines.length;
+            spill(oldest);
+            nextRemove(0, oldest);
+            nextAdd(size - 1, size);
+        } else {
+            lines[(head + size) % lines.length] = line;
+            size++;
+            nextAdd(size - 1, size);
+        }
+    }
+
+    /**
+     * Remove every line, spilling them first if a spill file is set.
+     */
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        String[] removed = new String[size];
+        for (int i = 0; i < size; i++) {
+            removed[i] = get(i);
+            spill(removed[i]);
+            lines[(head + i) % lines.length] = null;
+        }
+        head = 0;
+        size = 0;
+        flushSpill();
+        beginChange();
+        nextRemove(0, Arrays.asList(removed));
+        endChange();
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    /**
+     * @return Number of lines written to the spill file.
+     */
+    public long getSpilledCount() {
+        return spilled;
+    }
+
+    private void spill(String line) {
+        if (spillPath == null || spillFailed) {
+            return;
+        }
+        try {
+            if (spill == null) {
+                spill = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spill.write(line);
+            spill.newLine();
+            spilled++;
+        } catch (IOException e) {
+            System.err.println("Game log spill failed, no longer spilling: " + e.getMessage());
+            spillFailed = true;
+            closeSpill();
+        }
+    }
+
+    private void flushSpill() {
+        if (spill != null) {
+            try {
+                spill.flush();
+            } catch (IOException e) {
+                System.err.println("Game log spill failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeSpill() {
+        BufferedWriter writer = spill;
+        spill = null;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // Nothing more to write
+            }
+        }
+    }
+
+    /**
+     * Spill the lines still in memory, as clear does, then flush and close the spill file so the
+     * file holds the full record. The log stays usable; a later eviction reopens the file.
+     */
+    @Override
+    public void close() {
+        clear();
+        closeSpill();
+    }
+}
@@ -0,0 +1,84 @@
+// GamePhase.java
+
+/**
+ * Stage of a round as reported by the server.
+ * Newer servers send it in PokerInfo.phase; for servers that only send text,
+ * fromMessage recognizes the same phrases the client has always matched on.
+ */
+public enum GamePhase {
+    BETTING,      // Waiting for bets ("place your bets")
+    BET_PLACED,   // Bets accepted, waiting for DEAL ("bet placed")
+    CARDS_DEALT,  // Waiting for PLAY or FOLD ("cards dealt")
+    RESULTS,      // Round settled
+    NEW_GAME,     // New round started, winnings kept ("new game started")
+    FRESH_START,  // Table reset ("fresh start")
+    UNKNOWN;      // Nothing recognizable; the client falls back to the betting controls
+
+    /**
+     * Phase of an update: the explicit field if present, otherwise derived from the action and text.
+     * @param info The update.
+     * @return The phase, never null.
+     */
+    public static GamePhase of(PokerInfo info) {
+        if (info.getAction() == PokerInfo.Action.RESULTS) {
+            return RESULTS;
+        }
+        GamePhase phase = info.getPhase();
+        return phase != null ? phase : fromMessage(info.getMessage());
+    }
+
+    /**
+     * Compatibility fallback for servers that do not send a phase.
+     * Matching is case-insensitive and allocation-free; a null message is UNKNOWN.
+     * @param message Server message text.
+     * @return The phase the text describes.
+     */
+    public static GamePhase fromMessage(String message) {
+        if (message == null) {
+            return UNKNOWN;
+        }
+        if (containsIgnoreCase(message, "new game started")) {
+            return NEW_GAME;
+        } else if (containsIgnoreCase(message, "fresh start")) {
+            return FRESH_START;
+        } else if (containsIgnoreCase(message, "place your bets")) {
+            return BETTING;
+        } else if (containsIgnoreCase(message, "bet placed")) {
+            return BET_PLACED;
+        } else if (containsIgnoreCase(message, "cards dealt")) {
+            return CARDS_DEALT;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @return true for phases that start a new round and clear the table.
+     */
+    public boolean startsRound() {
+        return this == NEW_GAME || this == FRESH_START;
+    }
+
+    // Phrases are lower-case ASCII, so only ASCII letters in the text need folding
+    private static boolean containsIgnoreCase(String text, String phrase) {
+        int length = phrase.length();
+        int last = text.length() - length;
+        char first = phrase.charAt(0);
+        outer:
+        for (int i = 0; i <= last; i++) {
+            if (toLower(text.charAt(i)) != first) {
+                continue;
+            }
+            for (int j = 1; j < length; j++) {
+                if (toLower(text.charAt(i + j)) != phrase.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static char toLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
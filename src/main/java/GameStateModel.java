@@ -0,0 +1,148 @@
+// GameStateModel.java
+import java.util.ArrayList;
+
+/**
+ * Client-side copy of the table state, kept up to date from numbered server updates.
+ * A full snapshot replaces the state; a delta patches only the fields it lists and must carry
+ * the next sequence number. When a delta arrives out of order the model stops applying
+ * deltas until the next snapshot, and the caller asks the server for one with RESYNC.
+ * Updates without a sequence number come from servers that always send everything and
+ * pass straight through.
+ *
+ * Not thread-safe; feed it from the single thread that reads the connection.
+ */
+public class GameStateModel {
+    private final PokerInfo state = new PokerInfo(); // Latest known table state
+    private long sequence; // Sequence number of the last update applied
+    private boolean synced; // false until the first snapshot, and again after a gap
+    private boolean resyncRequested; // A RESYNC is outstanding for the current gap
+
+    private long snapshots;
+    private long deltas;
+    private long gaps;
+
+    /**
+     * Apply one server update.
+     * @param update A snapshot or delta from the server.
+     * @return The complete update to hand to the UI, or null if the delta could not be applied;
+     *         in that case call claimResync to decide whether to ask for a snapshot.
+     */
+    public PokerInfo apply(PokerInfo update) {
+        if (!update.isDelta()) {
+            copyState(update, state, PokerInfo.STATE_FIELDS);
+            if (update.getSequence() != 0) {
+                sequence = update.getSequence();
+                synced = true;
+                resyncRequested = false;
+            }
+            snapshots++;
+            return update;
+        }
+        if (!synced || update.getSequence() != sequence + 1) {
+            if (synced) {
+                gaps++;
+            }
+            synced = false;
+            return null;
+        }
+        copyState(update, state, update.getChangedFields());
+        sequence = update.getSequence();
+        deltas++;
+
+        PokerInfo full = new PokerInfo();
+        full.setAction(update.getAction());
+        full.setMessage(update.getMessage());
+        full.setSequence(sequence);
+        full.setCorrelationId(update.getCorrelationId());
+        full.setResumeToken(update.getResumeToken());
+        full.setCapabilities(update.getCapabilities());
+        copyState(state, full, PokerInfo.STATE_FIELDS);
+        return full;
+    }
+
+    /**
+     * @return true once per gap, when the caller should send a RESYNC request.
+     */
+    public boolean claimResync() {
+        if (synced || resyncRequested) {
+            return false;
+        }
+        resyncRequested = true;
+        return true;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getSnapshotCount() {
+        return snapshots;
+    }
+
+    public long getDeltaCount() {
+        return deltas;
+    }
+
+    /**
+     * @return Number of times a delta arrived out of sequence.
+     */
+    public long getGapCount() {
+        return gaps;
+    }
+
+    /**
+     * Build a delta holding the state fields that differ between two complete updates.
+     * The action, message, correlation id and resume token are per-message and always come from next.
+     * @param previous The state the receiver already has.
+     * @param next The new complete state.
+     * @return A delta without a sequence number.
+     */
+    public static PokerInfo diff(PokerInfo previous, PokerInfo next) {
+        int changed = 0;
+        if (!sameHand(previous.getPlayerHand(), next.getPlayerHand())) changed |= PokerInfo.FIELD_PLAYER_HAND;
+        if (!sameHand(previous.getDealerHand(), next.getDealerHand())) changed |= PokerInfo.FIELD_DEALER_HAND;
+        if (previous.getPlayerBalance() != next.getPlayerBalance()) changed |= PokerInfo.FIELD_BALANCE;
+        if (previous.getPlayerAnte() != next.getPlayerAnte()) changed |= PokerInfo.FIELD_ANTE;
+        if (previous.getPlayerPairPlus() != next.getPlayerPairPlus()) changed |= PokerInfo.FIELD_PAIR_PLUS;
+        if (previous.getPlayerPlay() != next.getPlayerPlay()) changed |= PokerInfo.FIELD_PLAY;
+        if (previous.isDealerCardsRevealed() != next.isDealerCardsRevealed()) changed |= PokerInfo.FIELD_DEALER_REVEALED;
+        if (previous.getRoundWinnings() != next.getRoundWinnings()) changed |= PokerInfo.FIELD_ROUND_WINNINGS;
+        if (previous.getPhase() != next.getPhase()) changed |= PokerInfo.FIELD_PHASE;
+
+        PokerInfo delta = new PokerInfo();
+        delta.setAction(next.getAction());
+        delta.setMessage(next.getMessage());
+        delta.setCorrelationId(next.getCorrelationId());
+        delta.setResumeToken(next.getResumeToken());
+        delta.setCapabilities(next.getCapabilities());
+        delta.setDelta(true);
+        delta.setChangedFields(changed);
+        copyState(next, delta, changed);
+        return delta;
+    }
+
+    // Copy the selected state fields; hands are copied so the two objects never share a list
+    static void copyState(PokerInfo from, PokerInfo to, int fields) {
+        if ((fields & PokerInfo.FIELD_PLAYER_HAND) != 0) to.setPlayerHand(new ArrayList<>(from.getPlayerHand()));
+        if ((fields & PokerInfo.FIELD_DEALER_HAND) != 0) to.setDealerHand(new ArrayList<>(from.getDealerHand()));
+        if ((fields & PokerInfo.FIELD_BALANCE) != 0) to.setPlayerBalance(from.getPlayerBalance());
+        if ((fields & PokerInfo.FIELD_ANTE) != 0) to.setPlayerAnte(from.getPlayerAnte());
+        if ((fields & PokerInfo.FIELD_PAIR_PLUS) != 0) to.setPlayerPairPlus(from.getPlayerPairPlus());
+        if ((fields & PokerInfo.FIELD_PLAY) != 0) to.setPlayerPlay(from.getPlayerPlay());
+        if ((fields & PokerInfo.FIELD_DEALER_REVEALED) != 0) to.setDealerCardsRevealed(from.isDealerCardsRevealed());
+        if ((fields & PokerInfo.FIELD_ROUND_WINNINGS) != 0) to.setRoundWinnings(from.getRoundWinnings());
+        if ((fields & PokerInfo.FIELD_PHASE) != 0) to.setPhase(from.getPhase());
+    }
+
+    private static boolean sameHand(ArrayList<Card> a, ArrayList<Card> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).equals(b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
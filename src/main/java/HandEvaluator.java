@@ -0,0 +1,142 @@
+// HandEvaluator.java
+import java.util.List;
+
+/**
+ * Ranks three-card poker hands.
+ * A score packs the hand category in bits 12-15 and three tiebreak values (4 bits each) below it,
+ * so higher scores always beat lower ones and equal scores are ties.
+ * Three card ranking: straight flush, three of a kind, straight, flush, pair, high card.
+ */
+public final class HandEvaluator {
+    public static final int HIGH_CARD = 0;
+    public static final int PAIR = 1;
+    public static final int FLUSH = 2;
+    public static final int STRAIGHT = 3;
+    public static final int THREE_OF_A_KIND = 4;
+    public static final int STRAIGHT_FLUSH = 5;
+
+    private static final String[] CATEGORY_NAMES = {
+            "High Card", "Pair", "Flush", "Straight", "Three of a Kind", "Straight Flush"
+    };
+
+    private static final String[] RANK_NAMES = {
+            null, "Ace", "2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King", "Ace"
+    }; // By card value; 1 is the ace of a low straight
+
+    /** Score of the weakest hand the dealer needs to qualify: queen high. */
+    public static final int DEALER_QUALIFIER = score(HIGH_CARD, 12, 3, 2);
+
+    /** Score of Queen-6-4, the usual threshold for playing rather than folding. */
+    public static final int QUEEN_SIX_FOUR = score(HIGH_CARD, 12, 6, 4);
+
+    private HandEvaluator() {
+    }
+
+    /**
+     * Score a three-card hand.
+     * @param hand List holding exactly three cards.
+     * @return The hand score.
+     */
+    public static int evaluate(List<Card> hand) {
+        if (hand == null || hand.size() != 3) {
+            throw new IllegalArgumentException("A three card hand is required");
+        }
+        return evaluate(hand.get(0), hand.get(1), hand.get(2));
+    }
+
+    /**
+     * Score a three-card hand.
+     * @return The hand score.
+     */
+    public static int evaluate(Card a, Card b, Card c) {
+        boolean flush = a.getSuit() == b.getSuit() && b.getSuit() == c.getSuit();
+        return evaluate(a.getValue(), b.getValue(), c.getValue(), flush);
+    }
+
+    /**
+     * Score a hand from its card values (2-14, ace high) in any order.
+     * @param flush true if all three cards share a suit.
+     * @return The hand score.
+     */
+    public static int evaluate(int v1, int v2, int v3, boolean flush) {
+        // Sort descending with three compares
+        int t;
+        if (v1 < v2) { t = v1; v1 = v2; v2 = t; }
+        if (v2 < v3) { t = v2; v2 = v3; v3 = t; }
+        if (v1 < v2) { t = v1; v1 = v2; v2 = t; }
+
+        if (v1 == v3) {
+            return score(THREE_OF_A_KIND, v1, v1, v1);
+        }
+        boolean straight = (v1 - v2 == 1 && v2 - v3 == 1);
+        if (v1 == 14 && v2 == 3 && v3 == 2) {
+            // Ace plays low in A-2-3, which ranks as the lowest straight
+            straight = true;
+            v1 = 3;
+            v2 = 2;
+            v3 = 1;
+        }
+        if (straight) {
+            return score(flush ? STRAIGHT_FLUSH : STRAIGHT, v1, v2, v3);
+        }
+        if (flush) {
+            return score(FLUSH, v1, v2, v3);
+        }
+        if (v1 == v2) {
+            return score(PAIR, v1, v1, v3);
+        }
+        if (v2 == v3) {
+            return score(PAIR, v2, v2, v1);
+        }
+        return score(HIGH_CARD, v1, v2, v3);
+    }
+
+    /**
+     * @param score A hand score.
+     * @return The hand category, from HIGH_CARD to STRAIGHT_FLUSH.
+     */
+    public static int category(int score) {
+        return score >>> 12;
+    }
+
+    /**
+     * @param score A hand score.
+     * @return The three tiebreak values packed in 12 bits; compare within one category only.
+     */
+    public static int tiebreak(int score) {
+        return score & 0xFFF;
+    }
+
+    /**
+     * @param score A dealer hand score.
+     * @return true if the dealer hand is queen high or better.
+     */
+    public static boolean dealerQualifies(int score) {
+        return score >= DEALER_QUALIFIER;
+    }
+
+    /**
+     * @param score A hand score.
+     * @return Readable name of the hand category.
+     */
+    public static String describe(int score) {
+        return CATEGORY_NAMES[category(score)];
+    }
+
+    /**
+     * @param score A hand score.
+     * @return Name of the hand for display, e.g. "Pair of Queens", "Three 6s" or "Flush, King high".
+     */
+    public static String label(int score) {
+        String high = RANK_NAMES[(score >>> 8) & 0xF];
+        switch (category(score)) {
+            case PAIR: return "Pair of " + high + "s";
+            case THREE_OF_A_KIND: return "Three " + high + "s";
+            default: return describe(score) + ", " + high + " high";
+        }
+    }
+
+    static int score(int category, int v1, int v2, int v3) {
+        return category << 12 | v1 << 8 | v2 << 4 | v3;
+    }
+}
@@ -0,0 +1,148 @@
+// HandHistoryReader.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads back the segments written by HandHistoryRecorder, oldest entry first.
+ * Each segment is memory-mapped in turn. An entry cut short at the end of a segment, as left
+ * by a client that was killed mid-write, ends that segment quietly.
+ */
+public class HandHistoryReader implements AutoCloseable {
+    private final List<Path> segments;
+    private int nextSegment;
+    private ByteBuffer current; // Mapped segment being read, or null between segments
+    private long startMillis; // Wall-clock start of the recording, from the segment header
+
+    /**
+     * One recorded message.
+     */
+    public static final class Entry {
+        private final long nanos;
+        private final HandHistoryRecorder.Direction direction;
+        private final PokerInfo info;
+
+        Entry(long nanos, HandHistoryRecorder.Direction direction, PokerInfo info) {
+            this.nanos = nanos;
+            this.direction = direction;
+            this.info = info;
+        }
+
+        /**
+         * @return Nanoseconds between the start of the recording and this message.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        public HandHistoryRecorder.Direction getDirection() {
+            return direction;
+        }
+
+        public PokerInfo getInfo() {
+            return info;
+        }
+    }
+
+    /**
+     * @param path A recorder directory, whose history-*.bin segments are read in name order,
+     *             or a single segment file.
+     */
+    public HandHistoryReader(Path path) throws IOException {
+        List<Path> found = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> dir = Files.newDirectoryStream(path, "history-*.bin")) {
+                for (Path segment : dir) {
+                    found.add(segment);
+                }
+            }
+            Collections.sort(found);
+        } else {
+            found.add(path);
+        }
+        this.segments = found;
+    }
+
+    /**
+     * Read every entry.
+     * @param path Directory or segment file, as for the constructor.
+     * @return The entries, oldest first.
+     */
+    public static List<Entry> readAll(Path path) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (HandHistoryReader reader = new HandHistoryReader(path)) {
+            Entry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return The next entry, or null after the last one.
+     * @throws IOException if a segment is not a hand history or an entry is corrupt.
+     */
+    public Entry next() throws IOException {
+        while (true) {
+            if (current == null) {
+                if (nextSegment == segments.size()) {
+                    return null;
+                }
+                current = map(segments.get(nextSegment++));
+            }
+            if (current.remaining() >= 4) {
+                int length = current.getInt(current.position());
+                if (length < HandHistoryRecorder.ENTRY_HEADER_BYTES - 4) {
+                    throw new IOException("Corrupt hand history entry length " + length);
+                }
+                if (current.remaining() - 4 >= length) {
+                    current.position(current.position() + 4);
+                    long nanos = current.getLong();
+                    int direction = current.get();
+                    if (direction < 0 || direction >= HandHistoryRecorder.Direction.values().length) {
+                        throw new IOException("Corrupt hand history entry direction " + direction);
+                    }
+                    ByteBuffer payload = current.slice();
+                    payload.limit(length - (HandHistoryRecorder.ENTRY_HEADER_BYTES - 4));
+                    current.position(current.position() + payload.limit());
+                    return new Entry(nanos, HandHistoryRecorder.Direction.values()[direction], PokerInfoCodec.decode(payload));
+                }
+            }
+            current = null; // End of segment, or an entry cut short
+        }
+    }
+
+    /**
+     * @return Wall-clock time the recording started, in epoch milliseconds, or 0 before the
+     *         first entry is read.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    @Override
+    public void close() {
+        current = null; // The mapping is released when collected
+        nextSegment = segments.size();
+    }
+
+    private ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HandHistoryRecorder.SEGMENT_HEADER_BYTES
+                    || buffer.getInt() != HandHistoryRecorder.MAGIC || buffer.getInt() != HandHistoryRecorder.VERSION) {
+                throw new IOException("Not a hand history segment: " + path);
+            }
+            startMillis = buffer.getLong();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+// HandHistoryRecorder.java
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only binary log of every message a client sends and receives.
+ *
+ * The network thread only encodes the message into an in-memory batch under a short lock; a
+ * "history-writer" thread swaps the batch out and writes it to the current segment with one
+ * FileChannel write, so recording never waits on the disk. If the writer falls behind and the
+ * batch is full, entries are dropped and counted rather than blocking the network thread.
+ *
+ * Segments are named history-&lt;start millis&gt;-&lt;index&gt;.bin, so name order is time order,
+ * and a new one is started once the current one reaches the segment size.
+ * Segment layout: int magic "TCPH", int version, long wall-clock millis at recorder start,
+ * then entries. Entry layout: int length of the rest of the entry, long nanoseconds since the
+ * recorder started (monotonic, continuing across segments), direction byte (0 received,
+ * 1 sent), then the message as a PokerInfoCodec payload. Messages are recorded as they cross the
+ * wire, so received deltas stay deltas. HandHistoryReader reads segments back.
+ */
+public class HandHistoryRecorder implements AutoCloseable {
+    static final int MAGIC = 0x54435048; // "TCPH" big-endian
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_BYTES = 16;
+    static final int ENTRY_HEADER_BYTES = 13; // Length, timestamp, direction
+    static final long DEFAULT_SEGMENT_BYTES = 16L << 20;
+    static final int DEFAULT_BATCH_BYTES = 256 << 10;
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+
+    /**
+     * Which way a recorded message went.
+     */
+    public enum Direction {
+        RECEIVED, SENT
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private ByteBuffer filling; // Batch being recorded into; guarded by this
+    private ByteBuffer draining; // Batch the writer is writing; writer thread only
+    private boolean closed; // Guarded by this
+    private final Thread writer;
+    private FileChannel segment; // Writer thread only
+    private long segmentSize;
+    private int segmentIndex;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile IOException failure; // First write error; recording stops after it
+
+    /**
+     * Recorder for the directory named by the poker.history system property, with segment size
+     * from poker.historySegmentBytes.
+     * @return The recorder, or null if poker.history is not set.
+     */
+    public static HandHistoryRecorder fromSystemProperties() throws IOException {
+        String dir = System.getProperty("poker.history");
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return new HandHistoryRecorder(Paths.get(dir),
+                Long.getLong("poker.historySegmentBytes", DEFAULT_SEGMENT_BYTES), DEFAULT_BATCH_BYTES);
+    }
+
+    /**
+     * Create the directory if needed and start the writer thread.
+     * @param directory Directory the segments are written to.
+     * @param segmentBytes Size at which a segment is closed and the next one started.
+     * @param batchBytes Memory buffered between writes; entries beyond it are dropped.
+     */
+    public HandHistoryRecorder(Path directory, long segmentBytes, int batchBytes) throws IOException {
+        if (segmentBytes <= SEGMENT_HEADER_BYTES || batchBytes <= ENTRY_HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment and batch sizes are too small");
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.filling = ByteBuffer.allocate(batchBytes);
+        this.draining = ByteBuffer.allocate(batchBytes);
+        this.writer = new Thread(this::writeLoop, "history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Append a message to the log. Never blocks on I/O.
+     * @param direction Whether the message was received or sent.
+     * @param info The message, encoded before this returns so the caller may change it afterwards.
+     */
+    public void record(Direction direction, PokerInfo info) {
+        long nanos = System.nanoTime() - startNanos;
+        synchronized (this) {
+            if (closed || failure != null) {
+                return;
+            }
+            int start = filling.position();
+            try {
+                filling.putInt(0);
+                filling.putLong(nanos);
+                filling.put((byte) direction.ordinal());
+                PokerInfoCodec.encode(info, filling);
+            } catch (BufferOverflowException e) {
+                filling.position(start); // The writer is behind; lose this entry rather than wait
+                dropped.incrementAndGet();
+                notifyAll();
+                return;
+            }
+            filling.putInt(start, filling.position() - start - 4);
+            recorded.incrementAndGet();
+            if (filling.position() >= filling.capacity() / 2) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return Entries recorded so far.
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @return Entries dropped because the writer had fallen behind.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return Directory the segments are written to.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Write everything recorded so far and close the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            boolean last;
+            do {
+                synchronized (this) {
+                    if (!closed && filling.position() == 0) {
+                        wait(FLUSH_INTERVAL_MILLIS);
+                    }
+                    last = closed;
+                    ByteBuffer full = filling;
+                    filling = draining;
+                    draining = full;
+                }
+                draining.flip();
+                if (draining.hasRemaining()) {
+                    write(draining);
+                }
+                draining.clear();
+            } while (!last);
+        } catch (IOException e) {
+            System.err.println("Hand history stopped: " + e.getMessage());
+            failure = e;
+        } catch (InterruptedException e) {
+            // Stop without a final write
+        } finally {
+            closeSegment();
+        }
+    }
+
+    // Write as many whole entries as fit in the current segment, rolling over as needed;
+    // an entry larger than a whole segment gets a segment to itself
+    private void write(ByteBuffer batch) throws IOException {
+        int end = batch.limit();
+        while (batch.position() < end) {
+            if (segment == null) {
+                openSegment();
+            }
+            int cut = batch.position();
+            while (cut < end && segmentSize + (cut - batch.position()) + 4 + batch.getInt(cut) <= segmentBytes) {
+                cut += 4 + batch.getInt(cut);
+            }
+            if (cut == batch.position()) {
+                if (segmentSize > SEGMENT_HEADER_BYTES) {
+                    closeSegment();
+                    continue;
+                }
+                cut += 4 + batch.getInt(cut);
+            }
+            batch.limit(cut);
+            while (batch.hasRemaining()) {
+                segmentSize += segment.write(batch);
+            }
+            batch.limit(end);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(String.format("history-%d-%05d.bin", startMillis, segmentIndex++));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(startMillis).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segmentSize = SEGMENT_HEADER_BYTES;
+    }
+
+    private void closeSegment() {
+        FileChannel current = segment;
+        segment = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.err.println("Error closing hand history segment: " + e.getMessage());
+            }
+        }
+    }
+}
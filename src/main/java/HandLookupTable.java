@@ -0,0 +1,80 @@
+// HandLookupTable.java
+import java.util.List;
+
+/**
+ * Three-card hand scores precomputed for all 22,100 combinations of distinct cards, so ranking
+ * a hand is a branch-free sort and three array reads, with no allocation. A combination
+ * is indexed by its card ordinals in the combinatorial number system: with a < b < c, the index
+ * is C(c,3) + C(b,2) + a. Scores are the same as HandEvaluator's, so HandEvaluator.category,
+ * describe and label apply to them.
+ */
+public final class HandLookupTable {
+    public static final int COMBINATIONS = 22_100; // 52 choose 3
+
+    private static final int[] CHOOSE2 = new int[Card.COUNT]; // C(n,2)
+    private static final int[] CHOOSE3 = new int[Card.COUNT]; // C(n,3)
+    private static final int[] SCORES = new int[COMBINATIONS];
+
+    static {
+        for (int n = 0; n < Card.COUNT; n++) {
+            CHOOSE2[n] = n * (n - 1) / 2;
+            CHOOSE3[n] = n * (n - 1) * (n - 2) / 6;
+        }
+        for (int c = 2; c < Card.COUNT; c++) {
+            for (int b = 1; b < c; b++) {
+                for (int a = 0; a < b; a++) {
+                    SCORES[CHOOSE3[c] + CHOOSE2[b] + a] = HandEvaluator.evaluate(
+                            Card.ofOrdinal(a), Card.ofOrdinal(b), Card.ofOrdinal(c));
+                }
+            }
+        }
+    }
+
+    private HandLookupTable() {
+    }
+
+    /**
+     * Score a hand given by card ordinals.
+     * @param o1 Ordinal of a card, 0-51; the three cards may come in any order.
+     * @return The hand score, as HandEvaluator.evaluate would return it.
+     * @throws IllegalArgumentException if two cards are the same.
+     */
+    public static int score(int o1, int o2, int o3) {
+        return SCORES[index(o1, o2, o3)];
+    }
+
+    /**
+     * Score a three-card hand.
+     * @return The hand score.
+     */
+    public static int score(Card a, Card b, Card c) {
+        return SCORES[index(a.ordinal(), b.ordinal(), c.ordinal())];
+    }
+
+    /**
+     * Score a three-card hand.
+     * @param hand List holding exactly three cards.
+     * @return The hand score.
+     */
+    public static int score(List<Card> hand) {
+        if (hand == null || hand.size() != 3) {
+            throw new IllegalArgumentException("A three card hand is required");
+        }
+        return score(hand.get(0), hand.get(1), hand.get(2));
+    }
+
+    /**
+     * @return Position of the combination in the table, between 0 and 22,099.
+     */
+    static int index(int o1, int o2, int o3) {
+        // Sort with min and max rather than swaps: they compile to conditional moves, and random
+        // hands would mispredict the swap branches about half the time
+        int low = Math.min(Math.min(o1, o2), o3);
+        int high = Math.max(Math.max(o1, o2), o3);
+        int middle = o1 + o2 + o3 - low - high;
+        if (low == middle || middle == high || low < 0 || high >= Card.COUNT) {
+            throw new IllegalArgumentException("Three distinct card ordinals are required: " + low + ", " + middle + ", " + high);
+        }
+        return CHOOSE3[high] + CHOOSE2[middle] + low;
+    }
+}
@@ -0,0 +1,117 @@
+// LatencyHistogram.java
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, lock-free latency histogram with HDR-style log-linear buckets.
+ * Values below 64 get exact buckets; above that each power of two is split into 32
+ * sub-buckets, so any recorded value is reported within about 3% of its true size.
+ * Recording is a couple of atomic increments and never allocates.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BITS = 6;
+    static final int SUB_COUNT = 1 << SUB_BITS; // Exact buckets for values 0..63
+    static final int HALF = SUB_COUNT / 2; // Sub-buckets per power of two above that
+    static final int MAX_SHIFT = 40; // Covers values up to about 2^46 ns (19 hours)
+    static final int BUCKET_COUNT = SUB_COUNT + MAX_SHIFT * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Record one value, typically a latency in nanoseconds. Negative values are recorded as 0.
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        long max;
+        while (value > (max = maxValue.get()) && !maxValue.compareAndSet(max, value)) {
+            // Retry until our value is stored or a larger one wins
+        }
+    }
+
+    /**
+     * @return Number of recorded values.
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return Largest recorded value.
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * @return Mean of recorded values, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = totalCount.get();
+        return n == 0 ? 0 : (double) totalValue.get() / n;
+    }
+
+    /**
+     * Estimate a percentile from the bucket counts.
+     * @param percentile Percentile between 0 and 100.
+     * @return Upper bound of the bucket that holds the percentile, capped at the recorded max.
+     */
+    public long getPercentile(double percentile) {
+        long n = totalCount.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * Clear all recorded values. Not atomic with respect to concurrent recording.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - (SUB_BITS - 1); // Keeps the top SUB_BITS bits as the sub-bucket
+        if (shift > MAX_SHIFT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> shift); // In [HALF, SUB_COUNT)
+        return SUB_COUNT + (shift - 1) * HALF + (sub - HALF);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int k = bucket - SUB_COUNT;
+        int shift = k / HALF + 1;
+        long sub = k % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,376 @@
+// LoadGenerator.java
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load generator: opens many simulated player sessions against a server and plays
+ * CONNECT -> PLACE_BET -> DEAL -> PLAY/FOLD -> NEW_GAME -> PLACE_BET ... on each of them.
+ *
+ * Usage: java LoadGenerator [--host=127.0.0.1] [--port=5555] [--sessions=100] [--hands=50]
+ *        [--think-ms=0] [--ante=5] [--pair-plus=0] [--policy=q64|play|fold|random]
+ *        [--wire=java|binary] [--timeout-ms=10000] [--ramp-ms=0] [--pipeline=false]
+ *
+ * The wire format defaults to Java serialization, the only one the real server speaks;
+ * --wire=binary is for the stub server. With the binary wire format every session runs on one
+ * NioTransport; with Java serialization each session needs its own reader thread. Latency is measured per action from send to the
+ * response that completes it (RESULTS for PLAY/FOLD, the next message for everything else).
+ *
+ * With --pipeline=true the player sends BATCH messages, bet-and-deal after connecting and
+ * new-game-bet-and-deal after each result, cutting a hand from four round trips to two.
+ * Responses are matched by correlation id, and a batch is timed under its last action.
+ */
+public class LoadGenerator {
+    private static final PokerInfo.Action[] ACTIONS = PokerInfo.Action.values();
+    private static final PokerInfo.Action[] BET_AND_DEAL = {PokerInfo.Action.PLACE_BET, PokerInfo.Action.DEAL};
+    private static final PokerInfo.Action[] NEXT_HAND = {PokerInfo.Action.NEW_GAME, PokerInfo.Action.PLACE_BET, PokerInfo.Action.DEAL};
+
+    /**
+     * Decides whether a simulated player plays or folds a dealt hand.
+     */
+    public interface PlayPolicy {
+        boolean play(PokerInfo dealt);
+
+        PlayPolicy ALWAYS_PLAY = dealt -> true;
+        PlayPolicy ALWAYS_FOLD = dealt -> false;
+        PlayPolicy RANDOM = dealt -> ThreadLocalRandom.current().nextBoolean();
+        // Play Queen-6-4 or better, the usual near-optimal rule
+        PlayPolicy QUEEN_SIX_FOUR = dealt -> dealt.getPlayerHand().size() != 3
+                || HandEvaluator.evaluate(dealt.getPlayerHand()) >= HandEvaluator.QUEEN_SIX_FOUR;
+
+        static PlayPolicy named(String name) {
+            switch (name.toLowerCase()) {
+                case "play": return ALWAYS_PLAY;
+                case "fold": return ALWAYS_FOLD;
+                case "random": return RANDOM;
+                case "q64": return QUEEN_SIX_FOUR;
+                default: throw new IllegalArgumentException("Unknown policy: " + name);
+            }
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final int sessions;
+    private final int hands;
+    private final long thinkMillis;
+    private final int ante;
+    private final int pairPlus;
+    private final PlayPolicy policy;
+    private final WireFormat wireFormat;
+    private final long timeoutMillis;
+    private final long rampMillis;
+    private final boolean pipeline;
+
+    private final Map<PokerInfo.Action, LatencyHistogram> latencies = new EnumMap<>(PokerInfo.Action.class);
+    private final AtomicLong handsCompleted = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private CountDownLatch finished;
+
+    /**
+     * @param options Parsed --key=value options; see the class comment for names and defaults.
+     */
+    public LoadGenerator(Map<String, String> options) {
+        host = options.getOrDefault("host", "127.0.0.1");
+        port = Integer.parseInt(options.getOrDefault("port", "5555"));
+        sessions = Integer.parseInt(options.getOrDefault("sessions", "100"));
+        hands = Integer.parseInt(options.getOrDefault("hands", "50"));
+        thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        ante = Integer.parseInt(options.getOrDefault("ante", "5"));
+        pairPlus = Integer.parseInt(options.getOrDefault("pair-plus", "0"));
+        policy = PlayPolicy.named(options.getOrDefault("policy", "q64"));
+        wireFormat = WireFormat.valueOf(options.getOrDefault("wire", WireFormat.JAVA.name()).toUpperCase());
+        timeoutMillis = Long.parseLong(options.getOrDefault("timeout-ms", "10000"));
+        rampMillis = Long.parseLong(options.getOrDefault("ramp-ms", "0"));
+        pipeline = Boolean.parseBoolean(options.getOrDefault("pipeline", "false"));
+        for (PokerInfo.Action action : ACTIONS) {
+            latencies.put(action, new LatencyHistogram());
+        }
+        scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "load-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Ignoring argument " + arg + " (expected --key=value)");
+                continue;
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    /**
+     * Run every session to completion and print the report.
+     */
+    public void run() throws IOException, InterruptedException {
+        finished = new CountDownLatch(sessions);
+        long start = System.nanoTime();
+        NioTransport transport = wireFormat == WireFormat.BINARY ? new NioTransport("load-nio") : null;
+        try {
+            for (int i = 0; i < sessions; i++) {
+                VirtualPlayer player = new VirtualPlayer();
+                long delay = sessions > 1 ? rampMillis * i / (sessions - 1) : 0;
+                scheduler.schedule(() -> player.open(transport), delay, TimeUnit.MILLISECONDS);
+            }
+            while (!finished.await(5, TimeUnit.SECONDS)) {
+                report(System.nanoTime() - start, false);
+            }
+            report(System.nanoTime() - start, true);
+        } finally {
+            scheduler.shutdownNow();
+            if (transport != null) {
+                transport.close();
+            }
+        }
+    }
+
+    /**
+     * @return Latency histogram for an action, in nanoseconds.
+     */
+    public LatencyHistogram getLatency(PokerInfo.Action action) {
+        return latencies.get(action);
+    }
+
+    public long getHandsCompleted() {
+        return handsCompleted.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    private void report(long elapsedNanos, boolean last) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%s after %.1fs: %d hands (%.1f hands/s), %d messages (%.1f msg/s), %d errors, %d sessions open%n",
+                last ? "Finished" : "Progress", seconds, handsCompleted.get(), handsCompleted.get() / seconds,
+                messagesReceived.get(), messagesReceived.get() / seconds, errors.get(), finished.getCount());
+        if (!last) {
+            return;
+        }
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s%n", "action", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (PokerInfo.Action action : ACTIONS) {
+            LatencyHistogram h = latencies.get(action);
+            if (h.getCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-12s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", action, h.getCount(),
+                    h.getPercentile(50) / 1e6, h.getPercentile(90) / 1e6, h.getPercentile(99) / 1e6,
+                    h.getPercentile(99.9) / 1e6, h.getMax() / 1e6);
+        }
+    }
+
+    /**
+     * One simulated player. Messages arrive on a transport thread and the next action is
+     * scheduled after the think time, so no thread ever blocks waiting on a player.
+     */
+    private final class VirtualPlayer implements NioTransport.Listener {
+        private NioTransport.Session session; // Binary mode
+        private PokerStream stream; // Java serialization mode
+        private Socket socket;
+        private PokerInfo.Action pending; // Request waiting for its response
+        private long pendingId; // Its correlation id in pipeline mode, 0 otherwise
+        private long nextId;
+        private long sentAt;
+        private int handsPlayed;
+        private ScheduledFuture<?> timeout;
+        private boolean done;
+
+        void open(NioTransport transport) {
+            try {
+                if (transport != null) {
+                    session = transport.connect(new InetSocketAddress(host, port), this);
+                } else {
+                    socket = new Socket(host, port);
+                    socket.setTcpNoDelay(true);
+                    stream = wireFormat.open(socket.getInputStream(), socket.getOutputStream());
+                    Thread reader = new Thread(this::readLoop, "load-reader");
+                    reader.setDaemon(true);
+                    reader.start();
+                }
+                send(PokerInfo.Action.CONNECT);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void readLoop() {
+            try {
+                while (!isDone()) {
+                    onMessage(null, stream.read());
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                if (!isDone()) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void onMessage(NioTransport.Session s, PokerInfo info) {
+            messagesReceived.incrementAndGet();
+            if (pending == null || done) {
+                return; // Unsolicited update
+            }
+            if (pendingId != 0 && info.getCorrelationId() != pendingId) {
+                return; // Answer to an earlier step of the batch
+            }
+            boolean handOver = pending == PokerInfo.Action.PLAY || pending == PokerInfo.Action.FOLD;
+            if (handOver && info.getAction() != PokerInfo.Action.RESULTS) {
+                return; // Wait for the round result
+            }
+            PokerInfo.Action completed = pending;
+            latencies.get(completed).record(System.nanoTime() - sentAt);
+            pending = null;
+            timeout.cancel(false);
+
+            PokerInfo.Action[] next;
+            switch (completed) {
+                case CONNECT:
+                case NEW_GAME:
+                case FRESH_START:
+                    next = pipeline ? BET_AND_DEAL : new PokerInfo.Action[] {PokerInfo.Action.PLACE_BET};
+                    break;
+                case PLACE_BET:
+                    next = new PokerInfo.Action[] {PokerInfo.Action.DEAL};
+                    break;
+                case DEAL:
+                    next = new PokerInfo.Action[] {policy.play(info) ? PokerInfo.Action.PLAY : PokerInfo.Action.FOLD};
+                    break;
+                default:
+                    handsCompleted.incrementAndGet();
+                    if (++handsPlayed >= hands) {
+                        next = new PokerInfo.Action[] {PokerInfo.Action.EXIT};
+                    } else {
+                        next = pipeline ? NEXT_HAND : new PokerInfo.Action[] {PokerInfo.Action.NEW_GAME};
+                    }
+                    break;
+            }
+            PokerInfo.Action[] actions = next;
+            if (thinkMillis > 0) {
+                // Nothing is pending while thinking, so stray messages are not taken as responses
+                scheduler.schedule(() -> send(actions), thinkMillis, TimeUnit.MILLISECONDS);
+            } else {
+                send(actions);
+            }
+        }
+
+        @Override
+        public void onClosed(NioTransport.Session s, Exception cause) {
+            if (cause != null) {
+                fail(cause);
+            } else {
+                finish();
+            }
+        }
+
+        // Send one request, or several as a batch; the last one decides when the player moves on
+        private synchronized void send(PokerInfo.Action... actions) {
+            if (done) {
+                return;
+            }
+            PokerInfo req = request(actions[0]);
+            PokerInfo last = req;
+            if (actions.length > 1) {
+                req = new PokerInfo();
+                req.setAction(PokerInfo.Action.BATCH);
+                req.setBatch(new ArrayList<>(actions.length));
+                for (PokerInfo.Action step : actions) {
+                    last = request(step);
+                    req.getBatch().add(last);
+                }
+            }
+            PokerInfo.Action action = last.getAction();
+            if (action != PokerInfo.Action.EXIT) {
+                pending = action;
+                pendingId = last.getCorrelationId();
+                sentAt = System.nanoTime();
+                timeout = scheduler.schedule(() -> timedOut(action), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            try {
+                if (session != null) {
+                    session.send(req);
+                } else {
+                    stream.write(req);
+                    stream.flush();
+                }
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            if (action == PokerInfo.Action.EXIT) {
+                finish();
+            }
+        }
+
+        private PokerInfo request(PokerInfo.Action action) {
+            PokerInfo req = new PokerInfo();
+            req.setAction(action);
+            if (action == PokerInfo.Action.PLACE_BET) {
+                req.setAnteBetRequest(ante);
+                req.setPairPlusBetRequest(pairPlus);
+            }
+            if (pipeline) {
+                req.setCorrelationId(++nextId);
+            }
+            return req;
+        }
+
+        private synchronized void timedOut(PokerInfo.Action action) {
+            if (pending == action && !done) {
+                fail(new IOException("No response to " + action + " within " + timeoutMillis + " ms"));
+            }
+        }
+
+        private synchronized boolean isDone() {
+            return done;
+        }
+
+        private synchronized void fail(Exception e) {
+            if (!done) {
+                errors.incrementAndGet();
+                System.err.println("Session failed: " + e.getMessage());
+                finish();
+            }
+        }
+
+        private synchronized void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (session != null) {
+                session.close();
+            }
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+            finished.countDown();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+// NioTransport.java
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking transport that drives many server sessions from one I/O thread.
+ * Each session is a SocketChannel registered with a shared Selector and speaks the
+ * BINARY wire format, since its length-prefixed frames can be cut out of partial reads.
+ * Messages are handed to a Listener on the I/O thread, so listeners must not block.
+ */
+public class NioTransport implements AutoCloseable {
+    static final int BUFFER_BYTES = 8 * 1024; // Initial per-session read and write buffer size
+
+    private static NioTransport shared; // Lazily started instance used by the game client
+
+    private final Selector selector;
+    private final Thread ioThread;
+    private final Queue<Session> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    private final Queue<Session> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * Callbacks for one session. All methods run on the I/O thread.
+     */
+    public interface Listener {
+        default void onConnected(Session session) {
+        }
+
+        void onMessage(Session session, PokerInfo info);
+
+        /**
+         * @param cause The error that closed the session, or null for a normal close.
+         */
+        default void onClosed(Session session, Exception cause) {
+        }
+    }
+
+    /**
+     * Open a selector and start the I/O thread.
+     * @param name Name for the I/O thread.
+     */
+    public NioTransport(String name) throws IOException {
+        selector = Selector.open();
+        ioThread = new Thread(this::runLoop, name);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * @return The transport shared by all game-screen connections in this JVM.
+     */
+    public static synchronized NioTransport shared() throws IOException {
+        if (shared == null) {
+            shared = new NioTransport("nio-transport");
+        }
+        return shared;
+    }
+
+    /**
+     * @return true if the poker.transport system property selects this transport.
+     */
+    public static boolean isSelected() {
+        return "nio".equalsIgnoreCase(System.getProperty("poker.transport", "").trim());
+    }
+
+    /**
+     * Start connecting a new session. Messages may be sent right away; they are
+     * queued until the connection completes.
+     * @param address Server address.
+     * @param listener Receives the session's events.
+     * @return The new session.
+     */
+    public Session connect(InetSocketAddress address, Listener listener) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Session session = new Session(channel, listener);
+        try {
+            session.connected = channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        pendingRegistrations.add(session);
+        selector.wakeup();
+        return session;
+    }
+
+    /**
+     * Take over a channel that is already connected, e.g. one opened by ServerConnection.
+     * @param channel Connected channel; it is switched to non-blocking mode.
+     * @param listener Receives the session's events.
+     * @return The new session.
+     */
+    public Session adopt(SocketChannel channel, Listener listener) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Session session = new Session(channel, listener);
+        session.connected = true;
+        pendingRegistrations.add(session);
+        selector.wakeup();
+        return session;
+    }
+
+    // Event loop: register new sessions, flush queued writes, then service ready channels
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Session session;
+                while ((session = pendingRegistrations.poll()) != null) {
+                    register(session);
+                }
+                while ((session = pendingWrites.poll()) != null) {
+                    session.writeScheduled.set(false);
+                    if (session.key != null && session.connected) {
+                        session.handleWrite();
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Session s = (Session) key.attachment();
+                    try {
+                        if (key.isValid() && key.isConnectable()) {
+                            s.finishConnect();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            s.handleRead();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            s.handleWrite();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        s.closeWith(e);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                System.err.println("NIO transport stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    private void register(Session session) {
+        try {
+            int ops = session.connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT;
+            session.key = session.channel.register(selector, ops, session);
+            if (session.connected) {
+                session.listener.onConnected(session);
+                session.handleWrite();
+            }
+        } catch (IOException | RuntimeException e) {
+            session.closeWith(e);
+        }
+    }
+
+    /**
+     * Stop the I/O thread and close every session.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            ((Session) key.attachment()).closeWith(null);
+        }
+        selector.close();
+    }
+
+    /**
+     * One connection to the server. Only send and close may be called from other threads.
+     */
+    public final class Session {
+        private final SocketChannel channel;
+        private final Listener listener;
+        private final Queue<PokerInfo> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writeScheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES); // Filled by reads, drained by framing
+        private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES); // Holds encoded frames not yet written
+        private volatile boolean connected;
+        private SelectionKey key;
+        private volatile Object attachment; // Free slot for the owner's per-session state
+
+        private Session(SocketChannel channel, Listener listener) {
+            this.channel = channel;
+            this.listener = listener;
+        }
+
+        /**
+         * Queue a message for sending. Never blocks; the I/O thread writes it out.
+         * @param info The PokerInfo to send.
+         */
+        public void send(PokerInfo info) {
+            if (closed.get()) {
+                return;
+            }
+            outbound.add(info);
+            if (writeScheduled.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        public boolean isOpen() {
+            return !closed.get();
+        }
+
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        public void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+
+        /**
+         * Close the connection. The listener's onClosed is called once.
+         */
+        public void close() {
+            closeWith(null);
+        }
+
+        private void finishConnect() throws IOException {
+            if (channel.finishConnect()) {
+                connected = true;
+                key.interestOps(SelectionKey.OP_READ);
+                listener.onConnected(this);
+                handleWrite();
+            }
+        }
+
+        // Read what is available and deliver every complete frame; partial frames wait for more bytes
+        private void handleRead() throws IOException {
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                closeWith(null);
+                return;
+            }
+            readBuffer.flip();
+            PokerInfo info;
+            while ((info = PokerInfoCodec.readFrame(readBuffer)) != null) {
+                listener.onMessage(this, info);
+            }
+            readBuffer.compact();
+            if (!readBuffer.hasRemaining()) {
+                // A single frame is larger than the buffer; grow it so the frame can complete
+                ByteBuffer grown = ByteBuffer.allocateDirect(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                grown.put(readBuffer);
+                readBuffer = grown;
+            }
+        }
+
+        // Encode as many queued messages as fit, write what the socket accepts, and keep OP_WRITE while bytes remain
+        private void handleWrite() {
+            try {
+                boolean progress = true;
+                while (progress) {
+                    PokerInfo next;
+                    while ((next = outbound.peek()) != null) {
+                        int mark = writeBuffer.position();
+                        try {
+                            PokerInfoCodec.writeFrame(next, writeBuffer);
+                            outbound.poll();
+                        } catch (BufferOverflowException e) {
+                            writeBuffer.position(mark);
+                            if (mark > 0) {
+                                break; // Write out what we have first
+                            }
+                            writeBuffer = ByteBuffer.allocateDirect(writeBuffer.capacity() * 2);
+                        }
+                    }
+                    writeBuffer.flip();
+                    int written = writeBuffer.hasRemaining() ? channel.write(writeBuffer) : 0;
+                    boolean drained = !writeBuffer.hasRemaining();
+                    writeBuffer.compact();
+                    progress = written > 0 && drained && !outbound.isEmpty();
+                }
+                boolean pending = writeBuffer.position() > 0 || !outbound.isEmpty();
+                key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            } catch (IOException | RuntimeException e) {
+                closeWith(e);
+            }
+        }
+
+        private void closeWith(Exception cause) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already closing
+            }
+            outbound.clear();
+            listener.onClosed(this, cause);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// ObjectPokerStream.java
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+// PokerStream using standard Java serialization, compatible with the existing server
+public class ObjectPokerStream implements PokerStream {
+    private final CountingOutputStream counter;
+    private final ObjectOutputStream out;
+    private final ObjectInputStream in;
+    private final StreamResetPolicy resetPolicy;
+    private int messagesSinceReset; // Messages written since the handle table was last cleared
+    private long resets; // Number of resets performed, for diagnostics
+
+    /**
+     * Open object streams over a connection using the reset policy from the system properties.
+     * @param in Input stream from the peer.
+     * @param out Output stream to the peer.
+     */
+    public ObjectPokerStream(InputStream in, OutputStream out) throws IOException {
+        this(in, out, StreamResetPolicy.fromSystemProperties());
+    }
+
+    /**
+     * Open object streams over a connection.
+     * The output stream is created first so its header is sent before we block on the peer's.
+     * @param in Input stream from the peer.
+     * @param out Output stream to the peer.
+     * @param resetPolicy When to clear the stream handle tables.
+     */
+    public ObjectPokerStream(InputStream in, OutputStream out, StreamResetPolicy resetPolicy) throws IOException {
+        this.resetPolicy = resetPolicy;
+        // Buffer below the object stream so a batch of messages reaches the socket as one write on flush
+        this.counter = new CountingOutputStream(new BufferedOutputStream(out));
+        this.out = new ObjectOutputStream(counter);
+        this.out.flush();
+        this.in = new ObjectInputStream(in);
+        counter.count = 0;
+    }
+
+    @Override
+    public void write(PokerInfo info) throws IOException {
+        out.writeObject(info);
+        messagesSinceReset++;
+        // Resetting here clears our handle table and, via the reset marker, the peer's input table
+        if (resetPolicy.shouldReset(messagesSinceReset, counter.count)) {
+            out.reset();
+            messagesSinceReset = 0;
+            counter.count = 0;
+            resets++;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public PokerInfo read() throws IOException, ClassNotFoundException {
+        // Our input table is cleared whenever the peer resets its output with the same policy
+        return (PokerInfo) in.readObject();
+    }
+
+    /**
+     * @return How many times the output stream has been reset.
+     */
+    public long getResetCount() {
+        return resets;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            in.close();
+        }
+    }
+
+    // Tracks bytes written since the last reset for the size trigger
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+// OutboundQueue.java
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of outgoing messages drained by a dedicated writer thread, so callers on the
+ * UI thread never block on a socket write. The writer takes everything queued at the moment it
+ * wakes up, writes it all and flushes once. When the queue is full, send waits up to the offer
+ * timeout for room and then gives up, which bounds both memory and how long a caller can stall.
+ */
+public class OutboundQueue implements AutoCloseable {
+    static final int DEFAULT_CAPACITY = 64;
+    static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 100;
+    private static final int MAX_BATCH = 32; // Frames written per flush at most
+
+    private static final Entry CLOSE = new Entry(null); // Tells the writer to stop once earlier entries are out
+
+    private final PokerStream stream;
+    private final BlockingQueue<Entry> queue;
+    private final long offerTimeoutMillis;
+    private final Consumer<IOException> onError;
+    private final Thread writer;
+    private final Object sendLock = new Object(); // Makes checking closed and queueing one step, so nothing lands behind CLOSE
+    private volatile boolean closed; // Set under sendLock
+    private final ArrayList<PokerInfo> failed = new ArrayList<>(); // Batch the writer was on when a write failed
+
+    private final LatencyHistogram sendLatency = new LatencyHistogram(); // Queue entry to flushed, in nanoseconds
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Create a queue sized from the poker.sendQueue and poker.sendTimeoutMs system properties
+     * and start its writer thread.
+     * @param stream Stream the writer thread writes to; nothing else may write to it.
+     * @param onError Called on the writer thread if a write fails; the queue is closed afterwards.
+     */
+    public OutboundQueue(PokerStream stream, Consumer<IOException> onError) {
+        this(stream, Integer.getInteger("poker.sendQueue", DEFAULT_CAPACITY),
+                Long.getLong("poker.sendTimeoutMs", DEFAULT_OFFER_TIMEOUT_MILLIS), onError);
+    }
+
+    /**
+     * Create a queue and start its writer thread.
+     * @param stream Stream the writer thread writes to; nothing else may write to it.
+     * @param capacity Maximum number of messages waiting to be written.
+     * @param offerTimeoutMillis How long send waits for room in a full queue.
+     * @param onError Called on the writer thread if a write fails; the queue is closed afterwards.
+     */
+    public OutboundQueue(PokerStream stream, int capacity, long offerTimeoutMillis, Consumer<IOException> onError) {
+        this.stream = stream;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.onError = onError;
+        this.writer = new Thread(this::writeLoop, "client-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue a message for the writer thread.
+     * @param info The message to send.
+     * @return false if the queue is closed or stayed full for the whole offer timeout.
+     */
+    public boolean send(PokerInfo info) {
+        synchronized (sendLock) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!queue.offer(new Entry(info), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+        return true;
+    }
+
+    private void writeLoop() {
+        ArrayList<Entry> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                boolean stop = false;
+                int written = 0;
+                for (Entry entry : batch) {
+                    if (entry == CLOSE) {
+                        stop = true;
+                        break;
+                    }
+                    stream.write(entry.info);
+                    written++;
+                }
+                stream.flush(); // One flush, and so usually one socket write, for the whole batch
+                long now = System.nanoTime();
+                for (int i = 0; i < written; i++) {
+                    sendLatency.record(now - batch.get(i).enqueuedAt);
+                }
+                sent.addAndGet(written);
+                flushes.incrementAndGet();
+                batch.clear();
+                if (stop) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            closed = true; // Unlocked: a send that already passed the check is drained by abort
+            synchronized (failed) {
+                // Writes only fill a buffer, so nothing in the batch is known to have reached the peer
+                // until the flush returns; count all of it as unsent, even if that means sending some twice
+                for (Entry entry : batch) {
+                    if (entry != CLOSE) {
+                        failed.add(entry.info);
+                    }
+                }
+            }
+            onError.accept(e);
+        } catch (InterruptedException e) {
+            // Closed without waiting for the queue to drain
+        }
+    }
+
+    /**
+     * Stop accepting messages and let the writer finish what is already queued.
+     * If the queue stays full for the offer timeout, the writer is stopped without draining.
+     */
+    @Override
+    public void close() {
+        synchronized (sendLock) { // Waits out a send that is queueing, at most one offer timeout
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        boolean queued;
+        try {
+            queued = queue.offer(CLOSE, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            writer.interrupt(); // Still full behind a stalled peer; nothing more will get out anyway
+        }
+    }
+
+    /**
+     * Stop at once without writing anything else.
+     * @return Messages that were queued but not written, in order, so they can be sent on
+     *         another connection.
+     */
+    public List<PokerInfo> abort() {
+        synchronized (sendLock) {
+            closed = true;
+        }
+        writer.interrupt();
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ArrayList<PokerInfo> unsent = new ArrayList<>();
+        synchronized (failed) {
+            unsent.addAll(failed);
+            failed.clear();
+        }
+        ArrayList<Entry> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        for (Entry entry : queued) {
+            if (entry != CLOSE) {
+                unsent.add(entry.info);
+            }
+        }
+        return unsent;
+    }
+
+    /**
+     * Wait for the writer thread to finish after close.
+     * @param millis Maximum time to wait.
+     */
+    public void awaitTermination(long millis) throws InterruptedException {
+        writer.join(millis);
+    }
+
+    /**
+     * @return Messages currently waiting to be written.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return Deepest the queue has been right after a send.
+     */
+    public int getMaxQueueDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * @return Time from send to the flush that carried the message, in nanoseconds.
+     */
+    public LatencyHistogram getSendLatency() {
+        return sendLatency;
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * @return Number of flushes; sent count divided by this is the average batch size.
+     */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /**
+     * @return Messages dropped because the queue stayed full.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return One-line summary of the metrics, for logging.
+     */
+    public String describe() {
+        return String.format("%d sent in %d flushes, %d rejected, max queue depth %d, send latency p50 %.3f ms p99 %.3f ms",
+                getSentCount(), getFlushCount(), getRejectedCount(), getMaxQueueDepth(),
+                sendLatency.getPercentile(50) / 1e6, sendLatency.getPercentile(99) / 1e6);
+    }
+
+    private static final class Entry {
+        final PokerInfo info;
+        final long enqueuedAt = System.nanoTime();
+
+        Entry(PokerInfo info) {
+            this.info = info;
+        }
+    }
+}
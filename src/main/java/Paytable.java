@@ -0,0 +1,73 @@
+// Paytable.java
+
+/**
+ * Payouts of the Three Card Poker rules played here, shared by the stub server's settlement
+ * and the client's equity calculations so both always agree.
+ * Playing pays the ante bonus and settles the pair plus bet; the ante and play bets then win,
+ * push or lose against the dealer, with only the ante paid if the dealer does not qualify.
+ * Folding forfeits the ante and the pair plus bet.
+ */
+public final class Paytable {
+    private Paytable() {
+    }
+
+    /**
+     * @param score Player hand score.
+     * @return Ante bonus in units of the ante, paid whenever the player plays.
+     */
+    public static int anteBonus(int score) {
+        switch (HandEvaluator.category(score)) {
+            case HandEvaluator.STRAIGHT_FLUSH: return 5;
+            case HandEvaluator.THREE_OF_A_KIND: return 4;
+            case HandEvaluator.STRAIGHT: return 1;
+            default: return 0;
+        }
+    }
+
+    /**
+     * @param score Player hand score.
+     * @param pairPlus Pair plus bet, or 0.
+     * @return Net pair plus result in dollars.
+     */
+    public static int pairPlusResult(int score, int pairPlus) {
+        if (pairPlus == 0) {
+            return 0;
+        }
+        switch (HandEvaluator.category(score)) {
+            case HandEvaluator.STRAIGHT_FLUSH: return 40 * pairPlus;
+            case HandEvaluator.THREE_OF_A_KIND: return 30 * pairPlus;
+            case HandEvaluator.STRAIGHT: return 6 * pairPlus;
+            case HandEvaluator.FLUSH: return 3 * pairPlus;
+            case HandEvaluator.PAIR: return pairPlus;
+            default: return -pairPlus;
+        }
+    }
+
+    /**
+     * @return Net result of the ante and play bets against the dealer, not counting bonuses.
+     */
+    public static int showdown(int playerScore, int dealerScore, int ante) {
+        if (!HandEvaluator.dealerQualifies(dealerScore)) {
+            return ante; // Ante pays even money, play bet pushes
+        }
+        if (playerScore > dealerScore) {
+            return 2 * ante;
+        }
+        return playerScore < dealerScore ? -2 * ante : 0;
+    }
+
+    /**
+     * @return Net result of playing the hand, in dollars.
+     */
+    public static int playWinnings(int playerScore, int dealerScore, int ante, int pairPlus) {
+        return anteBonus(playerScore) * ante + pairPlusResult(playerScore, pairPlus)
+                + showdown(playerScore, dealerScore, ante);
+    }
+
+    /**
+     * @return Net result of folding, in dollars.
+     */
+    public static int foldWinnings(int ante, int pairPlus) {
+        return -ante - pairPlus;
+    }
+}
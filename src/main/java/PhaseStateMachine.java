@@ -0,0 +1,71 @@
+// PhaseStateMachine.java
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Tracks the client's view of the round phase.
+ * The server stays authoritative, so every reported phase is accepted, but transitions the
+ * normal flow never produces are counted to make protocol problems visible; only the first
+ * one is logged.
+ */
+public class PhaseStateMachine {
+    private static final Map<GamePhase, EnumSet<GamePhase>> EXPECTED = new EnumMap<>(GamePhase.class);
+
+    static {
+        EnumSet<GamePhase> resets = EnumSet.of(GamePhase.NEW_GAME, GamePhase.FRESH_START, GamePhase.UNKNOWN);
+        // Betting phases may jump to CARDS_DEALT when a pipelined bet and deal are rendered together
+        EXPECTED.put(GamePhase.BETTING, union(resets, GamePhase.BETTING, GamePhase.BET_PLACED, GamePhase.CARDS_DEALT));
+        EXPECTED.put(GamePhase.BET_PLACED, union(resets, GamePhase.BETTING, GamePhase.BET_PLACED, GamePhase.CARDS_DEALT));
+        EXPECTED.put(GamePhase.CARDS_DEALT, union(resets, GamePhase.CARDS_DEALT, GamePhase.RESULTS));
+        EXPECTED.put(GamePhase.RESULTS, union(resets, GamePhase.BETTING));
+        EXPECTED.put(GamePhase.NEW_GAME, union(resets, GamePhase.BETTING, GamePhase.BET_PLACED, GamePhase.CARDS_DEALT));
+        EXPECTED.put(GamePhase.FRESH_START, union(resets, GamePhase.BETTING, GamePhase.BET_PLACED, GamePhase.CARDS_DEALT));
+        EXPECTED.put(GamePhase.UNKNOWN, EnumSet.allOf(GamePhase.class));
+    }
+
+    private GamePhase current = GamePhase.UNKNOWN;
+    private long unexpectedTransitions;
+
+    /**
+     * Move to the phase of a server update.
+     * @param info The update.
+     * @return The new phase.
+     */
+    public GamePhase advance(PokerInfo info) {
+        GamePhase next = GamePhase.of(info);
+        if (!EXPECTED.get(current).contains(next)) {
+            if (unexpectedTransitions++ == 0) { // Runs on the FX thread; the rest are only counted
+                System.err.println("Unexpected phase change " + current + " -> " + next + " (further ones are counted, not logged)");
+            }
+        }
+        current = next;
+        return next;
+    }
+
+    /**
+     * Forget the current phase, e.g. before a new session starts on a reused screen.
+     */
+    public void reset() {
+        current = GamePhase.UNKNOWN;
+    }
+
+    public GamePhase getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return Number of transitions outside the normal round flow.
+     */
+    public long getUnexpectedTransitions() {
+        return unexpectedTransitions;
+    }
+
+    private static EnumSet<GamePhase> union(EnumSet<GamePhase> base, GamePhase... more) {
+        EnumSet<GamePhase> set = EnumSet.copyOf(base);
+        for (GamePhase phase : more) {
+            set.add(phase);
+        }
+        return set;
+    }
+}
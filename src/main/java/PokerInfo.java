@@ -16,8 +16,26 @@ public class PokerInfo implements Serializable {
         UPDATE,
         RESULTS,
         FRESH_START,
-        NEW_GAME
-    }
+        NEW_GAME,
+        RESYNC, // Client lost track of the state updates and asks for a full snapshot
+        BATCH // Several requests in one message, carried in getBatch and handled in order
+    }
+
+    // Bits for getChangedFields, one per piece of table state; the binary codec uses the same bits
+    public static final int FIELD_PLAYER_HAND = 1 << 2;
+    public static final int FIELD_DEALER_HAND = 1 << 3;
+    public static final int FIELD_BALANCE = 1 << 4;
+    public static final int FIELD_ANTE = 1 << 5;
+    public static final int FIELD_PAIR_PLUS = 1 << 6;
+    public static final int FIELD_PLAY = 1 << 7;
+    public static final int FIELD_DEALER_REVEALED = 1 << 8;
+    public static final int FIELD_ROUND_WINNINGS = 1 << 11;
+    public static final int FIELD_PHASE = 1 << 12;
+    // Bits for getCapabilities, advertised by a server on its CONNECT response
+    public static final int CAP_BATCH = 1; // Handles BATCH requests
+
+    public static final int STATE_FIELDS = FIELD_PLAYER_HAND | FIELD_DEALER_HAND | FIELD_BALANCE | FIELD_ANTE
+            | FIELD_PAIR_PLUS | FIELD_PLAY | FIELD_DEALER_REVEALED | FIELD_ROUND_WINNINGS | FIELD_PHASE;
 
     private Action action;
     private String message;
@@ -31,6 +49,14 @@ public class PokerInfo implements Serializable {
     private int anteBetRequest;
     private int pairPlusBetRequest;
     private int roundWinnings;
+    private GamePhase phase; // Explicit round phase; null from servers that only send message text
+    private long sequence; // Position in the server's update stream; 0 from servers that do not number updates
+    private boolean delta; // true if only the fields in changedFields are meaningful
+    private int changedFields; // FIELD_* bits carried by a delta
+    private long correlationId; // Set on a request and echoed on its response; 0 if untracked
+    private ArrayList<PokerInfo> batch; // Requests carried by a BATCH message, null otherwise
+    private String resumeToken; // Issued with the CONNECT response; sent with a later CONNECT to resume the session
+    private int capabilities; // CAP_* bits, set on the CONNECT response; 0 from servers that advertise nothing
 
     // Getters and Setters
     public Action getAction() {
@@ -128,4 +154,68 @@ public class PokerInfo implements Serializable {
     public void setRoundWinnings(int roundWinnings) {
         this.roundWinnings = roundWinnings;
     }
-}
\ No newline at end of file
+
+    public GamePhase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(GamePhase phase) {
+        this.phase = phase;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public int getChangedFields() {
+        return changedFields;
+    }
+
+    public void setChangedFields(int changedFields) {
+        this.changedFields = changedFields;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public ArrayList<PokerInfo> getBatch() {
+        return batch;
+    }
+
+    public void setBatch(ArrayList<PokerInfo> batch) {
+        this.batch = batch;
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public void setResumeToken(String resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
+    public int getCapabilities() {
+        return capabilities;
+    }
+
+    public void setCapabilities(int capabilities) {
+        this.capabilities = capabilities;
+    }
+}
@@ -0,0 +1,462 @@
+// PokerInfoCodec.java
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Hand-written binary encoding of PokerInfo, used instead of Java serialization when the
+ * BINARY wire format is selected.
+ *
+ * Frame layout: varint payload length, then the payload.
+ * Payload layout: version byte, varint field mask, then each field whose bit is set, in bit order.
+ * Fields holding their default value (null, empty, 0, false) are left out of the mask entirely.
+ * Ints are zigzag varints, the action is one byte and each card is one byte.
+ *
+ * A delta (F_DELTA set) carries exactly the state fields in its changed set, default values
+ * included, so the mask doubles as the changed set. In a delta the dealer-revealed bit carries a
+ * one-byte value instead of being a bare flag, and a cleared phase is written as 0xFF.
+ *
+ * A batch is a varint count followed by each request as a nested length-prefixed frame.
+ * Batches do not nest.
+ */
+public final class PokerInfoCodec {
+    static final byte VERSION = 6; // 2 phase, 3 sequence numbers and deltas, 4 correlation ids and batches, 5 resume tokens, 6 capabilities
+    static final byte MIN_VERSION = 1;
+    static final int MAX_FRAME_BYTES = 1 << 20; // Guard against corrupt length prefixes
+
+    // Field mask bits
+    static final int F_ACTION = 1;
+    static final int F_MESSAGE = 1 << 1;
+    static final int F_PLAYER_HAND = PokerInfo.FIELD_PLAYER_HAND;
+    static final int F_DEALER_HAND = PokerInfo.FIELD_DEALER_HAND;
+    static final int F_BALANCE = PokerInfo.FIELD_BALANCE;
+    static final int F_ANTE = PokerInfo.FIELD_ANTE;
+    static final int F_PAIR_PLUS = PokerInfo.FIELD_PAIR_PLUS;
+    static final int F_PLAY = PokerInfo.FIELD_PLAY;
+    static final int F_DEALER_REVEALED = PokerInfo.FIELD_DEALER_REVEALED; // Flag only in full frames, one byte in deltas
+    static final int F_ANTE_BET_REQUEST = 1 << 9;
+    static final int F_PAIR_PLUS_BET_REQUEST = 1 << 10;
+    static final int F_ROUND_WINNINGS = PokerInfo.FIELD_ROUND_WINNINGS;
+    static final int F_PHASE = PokerInfo.FIELD_PHASE;
+    static final int F_SEQUENCE = 1 << 13;
+    static final int F_DELTA = 1 << 14; // Flag only
+    static final int F_CORRELATION = 1 << 15;
+    static final int F_BATCH = 1 << 16;
+    static final int F_RESUME_TOKEN = 1 << 17;
+    static final int F_CAPABILITIES = 1 << 18;
+    static final int KNOWN_FIELDS = (1 << 19) - 1;
+    private static final int NO_PHASE = 0xFF;
+
+    private static final PokerInfo.Action[] ACTIONS = PokerInfo.Action.values();
+    private static final GamePhase[] PHASES = GamePhase.values();
+
+    private PokerInfoCodec() {
+    }
+
+    /**
+     * Write one length-prefixed frame.
+     * @param info The PokerInfo to encode.
+     * @param out Destination buffer, positioned where the frame should start.
+     * @throws BufferOverflowException if the buffer is too small; callers grow it and retry.
+     */
+    public static void writeFrame(PokerInfo info, ByteBuffer out) {
+        int start = out.position();
+        // Most frames are under 128 bytes, so reserve a single length byte and shift if needed
+        out.put((byte) 0);
+        encode(info, out);
+        int end = out.position();
+        int length = end - start - 1;
+        int prefix = varintSize(length);
+        if (prefix > 1) {
+            if (out.limit() - end < prefix - 1) {
+                throw new BufferOverflowException();
+            }
+            int shift = prefix - 1;
+            for (int i = end - 1; i > start; i--) { // Copy backwards so the regions may overlap
+                out.put(i + shift, out.get(i));
+            }
+            end += shift;
+        }
+        out.position(start);
+        writeVarint(out, length);
+        out.position(end);
+    }
+
+    /**
+     * Read one frame if it is completely available.
+     * @param in Source buffer in read mode.
+     * @return The decoded PokerInfo, or null if the buffer holds only part of a frame;
+     *         in that case the buffer position is left unchanged.
+     * @throws IOException if the frame is malformed.
+     */
+    public static PokerInfo readFrame(ByteBuffer in) throws IOException {
+        int start = in.position();
+        int length = 0;
+        int shift = 0;
+        while (true) {
+            if (!in.hasRemaining()) {
+                in.position(start);
+                return null;
+            }
+            byte b = in.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new IOException("Malformed frame length");
+            }
+        }
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Frame too large: " + length);
+        }
+        if (in.remaining() < length) {
+            in.position(start);
+            return null;
+        }
+        int end = in.position() + length;
+        ByteBuffer payload = in.duplicate();
+        payload.limit(end);
+        PokerInfo info = decode(payload);
+        if (payload.hasRemaining()) {
+            throw new IOException("Trailing bytes in frame");
+        }
+        in.position(end);
+        return info;
+    }
+
+    /**
+     * Encode the payload of a PokerInfo (no length prefix).
+     * @param info The PokerInfo to encode.
+     * @param out Destination buffer.
+     */
+    public static void encode(PokerInfo info, ByteBuffer out) {
+        byte[] message = info.getMessage() == null ? null : info.getMessage().getBytes(StandardCharsets.UTF_8);
+        int mask = fieldMask(info);
+        boolean delta = (mask & F_DELTA) != 0;
+
+        out.put(VERSION);
+        writeVarint(out, mask);
+        if ((mask & F_ACTION) != 0) {
+            out.put((byte) info.getAction().ordinal());
+        }
+        if ((mask & F_MESSAGE) != 0) {
+            writeVarint(out, message.length);
+            out.put(message);
+        }
+        if ((mask & F_PLAYER_HAND) != 0) {
+            writeHand(out, info.getPlayerHand());
+        }
+        if ((mask & F_DEALER_HAND) != 0) {
+            writeHand(out, info.getDealerHand());
+        }
+        if ((mask & F_BALANCE) != 0) {
+            writeSignedVarint(out, info.getPlayerBalance());
+        }
+        if ((mask & F_ANTE) != 0) {
+            writeSignedVarint(out, info.getPlayerAnte());
+        }
+        if ((mask & F_PAIR_PLUS) != 0) {
+            writeSignedVarint(out, info.getPlayerPairPlus());
+        }
+        if ((mask & F_PLAY) != 0) {
+            writeSignedVarint(out, info.getPlayerPlay());
+        }
+        if (delta && (mask & F_DEALER_REVEALED) != 0) {
+            out.put((byte) (info.isDealerCardsRevealed() ? 1 : 0));
+        }
+        if ((mask & F_ANTE_BET_REQUEST) != 0) {
+            writeSignedVarint(out, info.getAnteBetRequest());
+        }
+        if ((mask & F_PAIR_PLUS_BET_REQUEST) != 0) {
+            writeSignedVarint(out, info.getPairPlusBetRequest());
+        }
+        if ((mask & F_ROUND_WINNINGS) != 0) {
+            writeSignedVarint(out, info.getRoundWinnings());
+        }
+        if ((mask & F_PHASE) != 0) {
+            out.put((byte) (info.getPhase() == null ? NO_PHASE : info.getPhase().ordinal()));
+        }
+        if ((mask & F_SEQUENCE) != 0) {
+            writeVarLong(out, info.getSequence());
+        }
+        if ((mask & F_CORRELATION) != 0) {
+            writeVarLong(out, info.getCorrelationId());
+        }
+        if ((mask & F_BATCH) != 0) {
+            writeVarint(out, info.getBatch().size());
+            for (PokerInfo request : info.getBatch()) {
+                if (request.getBatch() != null) {
+                    throw new IllegalArgumentException("Batches cannot be nested");
+                }
+                writeFrame(request, out);
+            }
+        }
+        if ((mask & F_RESUME_TOKEN) != 0) {
+            byte[] token = info.getResumeToken().getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, token.length);
+            out.put(token);
+        }
+        if ((mask & F_CAPABILITIES) != 0) {
+            writeVarint(out, info.getCapabilities());
+        }
+    }
+
+    /**
+     * Decode a payload produced by encode.
+     * @param in Source buffer positioned at the payload.
+     * @return The decoded PokerInfo.
+     * @throws IOException if the payload is malformed or from an unsupported version.
+     */
+    public static PokerInfo decode(ByteBuffer in) throws IOException {
+        return decode(in, false);
+    }
+
+    private static PokerInfo decode(ByteBuffer in, boolean nested) throws IOException {
+        try {
+            byte version = in.get();
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IOException("Unsupported codec version " + version);
+            }
+            int mask = readVarint(in);
+            if ((mask & ~KNOWN_FIELDS) != 0) {
+                throw new IOException("Unknown fields in mask 0x" + Integer.toHexString(mask));
+            }
+
+            boolean delta = (mask & F_DELTA) != 0;
+
+            PokerInfo info = new PokerInfo();
+            if (delta) {
+                info.setDelta(true);
+                info.setChangedFields(mask & PokerInfo.STATE_FIELDS);
+            }
+            if ((mask & F_ACTION) != 0) {
+                int ordinal = in.get() & 0xFF;
+                if (ordinal >= ACTIONS.length) {
+                    throw new IOException("Unknown action " + ordinal);
+                }
+                info.setAction(ACTIONS[ordinal]);
+            }
+            if ((mask & F_MESSAGE) != 0) {
+                info.setMessage(readString(in, readVarint(in)));
+            }
+            if ((mask & F_PLAYER_HAND) != 0) {
+                readHand(in, info.getPlayerHand());
+            }
+            if ((mask & F_DEALER_HAND) != 0) {
+                readHand(in, info.getDealerHand());
+            }
+            if ((mask & F_BALANCE) != 0) {
+                info.setPlayerBalance(readSignedVarint(in));
+            }
+            if ((mask & F_ANTE) != 0) {
+                info.setPlayerAnte(readSignedVarint(in));
+            }
+            if ((mask & F_PAIR_PLUS) != 0) {
+                info.setPlayerPairPlus(readSignedVarint(in));
+            }
+            if ((mask & F_PLAY) != 0) {
+                info.setPlayerPlay(readSignedVarint(in));
+            }
+            if (delta) {
+                info.setDealerCardsRevealed((mask & F_DEALER_REVEALED) != 0 && in.get() != 0);
+            } else {
+                info.setDealerCardsRevealed((mask & F_DEALER_REVEALED) != 0);
+            }
+            if ((mask & F_ANTE_BET_REQUEST) != 0) {
+                info.setAnteBetRequest(readSignedVarint(in));
+            }
+            if ((mask & F_PAIR_PLUS_BET_REQUEST) != 0) {
+                info.setPairPlusBetRequest(readSignedVarint(in));
+            }
+            if ((mask & F_ROUND_WINNINGS) != 0) {
+                info.setRoundWinnings(readSignedVarint(in));
+            }
+            if ((mask & F_PHASE) != 0) {
+                int ordinal = in.get() & 0xFF;
+                if (ordinal == NO_PHASE) {
+                    info.setPhase(null);
+                } else if (ordinal >= PHASES.length) {
+                    throw new IOException("Unknown phase " + ordinal);
+                } else {
+                    info.setPhase(PHASES[ordinal]);
+                }
+            }
+            if ((mask & F_SEQUENCE) != 0) {
+                info.setSequence(readVarLong(in));
+            }
+            if ((mask & F_CORRELATION) != 0) {
+                info.setCorrelationId(readVarLong(in));
+            }
+            if ((mask & F_BATCH) != 0) {
+                if (nested) {
+                    throw new IOException("Nested batch");
+                }
+                int count = readVarint(in);
+                if (count < 0 || count > in.remaining()) {
+                    throw new IOException("Invalid batch size " + count);
+                }
+                ArrayList<PokerInfo> batch = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    batch.add(readNestedFrame(in));
+                }
+                info.setBatch(batch);
+            }
+            if ((mask & F_RESUME_TOKEN) != 0) {
+                info.setResumeToken(readString(in, readVarint(in)));
+            }
+            if ((mask & F_CAPABILITIES) != 0) {
+                info.setCapabilities(readVarint(in));
+            }
+            return info;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated PokerInfo payload", e);
+        }
+    }
+
+    // A frame inside a batch: the enclosing frame is complete, so running short is an error
+    private static PokerInfo readNestedFrame(ByteBuffer in) throws IOException {
+        int length = readVarint(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Truncated batch entry");
+        }
+        ByteBuffer payload = in.duplicate();
+        payload.limit(in.position() + length);
+        PokerInfo info = decode(payload, true);
+        if (payload.hasRemaining()) {
+            throw new IOException("Trailing bytes in batch entry");
+        }
+        in.position(in.position() + length);
+        return info;
+    }
+
+    // Work out which fields differ from their defaults; a delta sends its changed fields as they are
+    private static int fieldMask(PokerInfo info) {
+        int mask = 0;
+        if (info.getAction() != null) mask |= F_ACTION;
+        if (info.getMessage() != null) mask |= F_MESSAGE;
+        if (info.getSequence() != 0) mask |= F_SEQUENCE;
+        if (info.getCorrelationId() != 0) mask |= F_CORRELATION;
+        if (info.getBatch() != null) mask |= F_BATCH;
+        if (info.getResumeToken() != null) mask |= F_RESUME_TOKEN;
+        if (info.getCapabilities() != 0) mask |= F_CAPABILITIES;
+        if (info.getAnteBetRequest() != 0) mask |= F_ANTE_BET_REQUEST;
+        if (info.getPairPlusBetRequest() != 0) mask |= F_PAIR_PLUS_BET_REQUEST;
+        if (info.isDelta()) {
+            return mask | F_DELTA | (info.getChangedFields() & PokerInfo.STATE_FIELDS);
+        }
+        if (info.getPlayerHand() != null && !info.getPlayerHand().isEmpty()) mask |= F_PLAYER_HAND;
+        if (info.getDealerHand() != null && !info.getDealerHand().isEmpty()) mask |= F_DEALER_HAND;
+        if (info.getPlayerBalance() != 0) mask |= F_BALANCE;
+        if (info.getPlayerAnte() != 0) mask |= F_ANTE;
+        if (info.getPlayerPairPlus() != 0) mask |= F_PAIR_PLUS;
+        if (info.getPlayerPlay() != 0) mask |= F_PLAY;
+        if (info.isDealerCardsRevealed()) mask |= F_DEALER_REVEALED;
+        if (info.getRoundWinnings() != 0) mask |= F_ROUND_WINNINGS;
+        if (info.getPhase() != null) mask |= F_PHASE;
+        return mask;
+    }
+
+    private static void writeHand(ByteBuffer out, ArrayList<Card> hand) {
+        out.put((byte) hand.size());
+        for (Card card : hand) {
+            out.put(packCard(card));
+        }
+    }
+
+    private static void readHand(ByteBuffer in, ArrayList<Card> hand) throws IOException {
+        int count = in.get() & 0xFF;
+        for (int i = 0; i < count; i++) {
+            hand.add(unpackCard(in.get()));
+        }
+    }
+
+    // One byte per card: the card's ordinal, 0..51
+    static byte packCard(Card card) {
+        return (byte) card.ordinal();
+    }
+
+    static Card unpackCard(byte packed) throws IOException {
+        int b = packed & 0xFF;
+        if (b >= Card.COUNT) {
+            throw new IOException("Invalid card byte " + b);
+        }
+        return Card.ofOrdinal(b); // Shared instance; decoding allocates no cards
+    }
+
+    private static String readString(ByteBuffer in, int length) throws IOException {
+        if (length > in.remaining()) {
+            throw new IOException("Truncated string");
+        }
+        if (in.hasArray()) {
+            String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return s;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static void writeVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int readVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeSignedVarint(ByteBuffer out, int value) {
+        writeVarint(out, (value << 1) ^ (value >> 31)); // Zigzag so small negatives stay short
+    }
+
+    static int readSignedVarint(ByteBuffer in) throws IOException {
+        int raw = readVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -0,0 +1,26 @@
+// PokerStream.java
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A bidirectional stream of PokerInfo messages over one connection.
+ * Implementations decide how each message is put on the wire (see WireFormat).
+ */
+public interface PokerStream extends Closeable {
+    /**
+     * Queue a message for sending. It is not guaranteed to reach the peer until flush is called.
+     * @param info The PokerInfo to send.
+     */
+    void write(PokerInfo info) throws IOException;
+
+    /**
+     * Push all written messages to the peer.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Block until the next message from the peer arrives.
+     * @return The received PokerInfo.
+     */
+    PokerInfo read() throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,107 @@
+// ReconnectBackoff.java
+import java.util.Random;
+
+/**
+ * Delays between reconnect attempts: exponential growth with full jitter.
+ * Attempt n waits a random time between 0 and min(max, base * 2^n), so clients that lost
+ * their connections at the same moment spread their reconnects out instead of all arriving
+ * together. The count only starts over once a connection has stayed up for the stable time,
+ * so a server that accepts and drops every connection still runs the attempts out instead of
+ * being retried at the base delay forever. Settings come from poker.reconnectBaseMs,
+ * poker.reconnectMaxMs, poker.reconnectAttempts and poker.reconnectStableMs; zero attempts
+ * turns reconnecting off.
+ */
+public class ReconnectBackoff {
+    static final long DEFAULT_BASE_MILLIS = 250;
+    static final long DEFAULT_MAX_MILLIS = 30_000;
+    static final int DEFAULT_MAX_ATTEMPTS = 10;
+    static final long DEFAULT_STABLE_MILLIS = 10_000;
+
+    private final long baseMillis;
+    private final long maxMillis;
+    private final int maxAttempts;
+    private final long stableMillis;
+    private final Random random;
+    private int attempts; // Attempts since the last connection that stayed up
+    private boolean up; // A connection is open
+    private long upSince; // When it opened, from System.nanoTime
+
+    /**
+     * @param baseMillis Upper bound of the first delay.
+     * @param maxMillis Cap on the upper bound as it doubles.
+     * @param maxAttempts Attempts before giving up.
+     * @param random Source of jitter.
+     */
+    public ReconnectBackoff(long baseMillis, long maxMillis, int maxAttempts, Random random) {
+        this(baseMillis, maxMillis, maxAttempts, DEFAULT_STABLE_MILLIS, random);
+    }
+
+    /**
+     * @param baseMillis Upper bound of the first delay.
+     * @param maxMillis Cap on the upper bound as it doubles.
+     * @param maxAttempts Attempts before giving up.
+     * @param stableMillis How long a connection must stay up before the attempts start over.
+     * @param random Source of jitter.
+     */
+    public ReconnectBackoff(long baseMillis, long maxMillis, int maxAttempts, long stableMillis, Random random) {
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+        this.maxAttempts = maxAttempts;
+        this.stableMillis = stableMillis;
+        this.random = random;
+    }
+
+    /**
+     * @return A backoff configured from the system properties.
+     */
+    public static ReconnectBackoff fromSystemProperties() {
+        return new ReconnectBackoff(
+                Long.getLong("poker.reconnectBaseMs", DEFAULT_BASE_MILLIS),
+                Long.getLong("poker.reconnectMaxMs", DEFAULT_MAX_MILLIS),
+                Integer.getInteger("poker.reconnectAttempts", DEFAULT_MAX_ATTEMPTS),
+                Long.getLong("poker.reconnectStableMs", DEFAULT_STABLE_MILLIS),
+                new Random());
+    }
+
+    /**
+     * Count an attempt and pick its delay.
+     * @return Milliseconds to wait before the attempt, or -1 if no attempts are left.
+     */
+    public synchronized long nextDelayMillis() {
+        if (attempts >= maxAttempts) {
+            return -1;
+        }
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempts, 30));
+        attempts++;
+        return (long) (random.nextDouble() * (ceiling + 1));
+    }
+
+    /**
+     * Start the attempts over.
+     */
+    public synchronized void reset() {
+        attempts = 0;
+    }
+
+    /**
+     * Note that a connection is open.
+     */
+    public synchronized void connected() {
+        up = true;
+        upSince = System.nanoTime();
+    }
+
+    /**
+     * Note that the connection dropped; the attempts start over if it stayed up for the stable time.
+     */
+    public synchronized void disconnected() {
+        if (up && System.nanoTime() - upSince >= stableMillis * 1_000_000) {
+            attempts = 0;
+        }
+        up = false;
+    }
+
+    public synchronized int getAttempts() {
+        return attempts;
+    }
+}
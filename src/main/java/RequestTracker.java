@@ -0,0 +1,101 @@
+// RequestTracker.java
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches responses to pipelined requests. Each tracked request gets a correlation id, which the
+ * server echoes on the response it sends for that request, so several requests can be in flight
+ * at once and still be completed individually. Untracked messages (correlation id 0) and
+ * server-initiated updates pass by without completing anything.
+ */
+public class RequestTracker {
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, Pending> pending = new HashMap<>(); // Guarded by this
+
+    /**
+     * Assign a correlation id to a request and start tracking it.
+     * @param request The request about to be sent; its correlation id is set here.
+     * @return Completes with the server's response to this request.
+     */
+    public CompletableFuture<PokerInfo> register(PokerInfo request) {
+        long id = nextId.incrementAndGet();
+        request.setCorrelationId(id);
+        Pending entry = new Pending(request.getAction());
+        synchronized (this) {
+            pending.put(id, entry);
+        }
+        return entry.future;
+    }
+
+    /**
+     * Complete the request a response belongs to, if it is tracked.
+     * @param response A message from the server.
+     * @return The action of the request it answered, or null if it answered none.
+     */
+    public PokerInfo.Action complete(PokerInfo response) {
+        long id = response.getCorrelationId();
+        if (id == 0) {
+            return null;
+        }
+        Pending entry;
+        synchronized (this) {
+            entry = pending.remove(id);
+        }
+        if (entry == null) {
+            return null;
+        }
+        entry.future.complete(response);
+        return entry.action;
+    }
+
+    /**
+     * Stop tracking a request that never made it onto the wire.
+     * @param request A registered request.
+     * @param cause Why it was not sent.
+     */
+    public void fail(PokerInfo request, IOException cause) {
+        Pending entry;
+        synchronized (this) {
+            entry = pending.remove(request.getCorrelationId());
+        }
+        if (entry != null) {
+            entry.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Fail every outstanding request, e.g. when the connection drops.
+     * @param cause Why the responses will never arrive.
+     */
+    public void failAll(IOException cause) {
+        List<Pending> lost;
+        synchronized (this) {
+            lost = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (Pending entry : lost) {
+            entry.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * @return Requests sent but not yet answered.
+     */
+    public synchronized int getOutstanding() {
+        return pending.size();
+    }
+
+    private static final class Pending {
+        final PokerInfo.Action action;
+        final CompletableFuture<PokerInfo> future = new CompletableFuture<>();
+
+        Pending(PokerInfo.Action action) {
+            this.action = action;
+        }
+    }
+}
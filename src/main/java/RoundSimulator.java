@@ -0,0 +1,348 @@
+// RoundSimulator.java
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless Three Card Poker simulator for checking house edge and bankroll policies offline.
+ * Bets are placed on a Player, exactly as the client tracks them, and settled with Paytable.
+ *
+ * Usage: java RoundSimulator [--rounds=100000000] [--threads=cores] [--seed=1]
+ *        [--bankroll=100] [--session-rounds=1000] [--policy=q64|play|fold]
+ *        [--sizing=flat|fraction] [--ante=5] [--pair-plus=0] [--fraction=0.02]
+ *
+ * Rounds are played in sessions that each start from the bankroll; a session is ruined when
+ * the player can no longer cover the next round's ante, play and pair plus bets. Each thread
+ * has its own SplittableRandom split from one seed, so a run is reproducible for a given seed
+ * and thread count, and deals from its own int[] deck by partial Fisher-Yates shuffle, so the
+ * rounds themselves allocate nothing.
+ */
+public class RoundSimulator {
+    /**
+     * Decides whether to play a dealt hand.
+     */
+    public interface PlayStrategy {
+        /**
+         * @param playerScore HandEvaluator score of the player's hand.
+         * @param player The player, with this round's bets placed.
+         * @return true to play, false to fold.
+         */
+        boolean play(int playerScore, Player player);
+
+        PlayStrategy ALWAYS_PLAY = (score, player) -> true;
+        PlayStrategy ALWAYS_FOLD = (score, player) -> false;
+        // Play Queen-6-4 or better, the usual near-optimal rule
+        PlayStrategy QUEEN_SIX_FOUR = (score, player) -> score >= HandEvaluator.QUEEN_SIX_FOUR;
+
+        static PlayStrategy named(String name) {
+            switch (name.toLowerCase()) {
+                case "play": return ALWAYS_PLAY;
+                case "fold": return ALWAYS_FOLD;
+                case "q64": return QUEEN_SIX_FOUR;
+                default: throw new IllegalArgumentException("Unknown policy: " + name);
+            }
+        }
+    }
+
+    /**
+     * Places the ante and pair plus bets for the next round.
+     */
+    public interface BetSizing {
+        /**
+         * @param player The player, with totalWinnings holding the current bankroll.
+         */
+        void placeBets(Player player);
+
+        /**
+         * @return Sizing that bets the same amounts every round.
+         */
+        static BetSizing flat(int ante, int pairPlus) {
+            return player -> {
+                player.setAnteBet(ante);
+                player.setPairPlusBet(pairPlus);
+            };
+        }
+
+        /**
+         * @return Sizing that antes a fraction of the current bankroll, at least 1, with no pair plus.
+         */
+        static BetSizing fraction(double fraction) {
+            return player -> {
+                player.setAnteBet(Math.max(1, (int) (player.getTotalWinnings() * fraction)));
+                player.setPairPlusBet(0);
+            };
+        }
+    }
+
+    private final PlayStrategy strategy;
+    private final BetSizing sizing;
+    private final int bankroll;
+    private final int sessionRounds;
+
+    /**
+     * @param strategy Play/fold decision.
+     * @param sizing Bet sizing.
+     * @param bankroll Starting balance of every session.
+     * @param sessionRounds Rounds in a session that is not ruined.
+     */
+    public RoundSimulator(PlayStrategy strategy, BetSizing sizing, int bankroll, int sessionRounds) {
+        if (bankroll <= 0 || sessionRounds <= 0) {
+            throw new IllegalArgumentException("Bankroll and session length must be positive");
+        }
+        this.strategy = strategy;
+        this.sizing = sizing;
+        this.bankroll = bankroll;
+        this.sessionRounds = sessionRounds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Ignoring argument " + arg + " (expected --key=value)");
+                continue;
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        BetSizing sizing = "fraction".equals(options.getOrDefault("sizing", "flat"))
+                ? BetSizing.fraction(Double.parseDouble(options.getOrDefault("fraction", "0.02")))
+                : BetSizing.flat(Integer.parseInt(options.getOrDefault("ante", "5")),
+                        Integer.parseInt(options.getOrDefault("pair-plus", "0")));
+        RoundSimulator simulator = new RoundSimulator(
+                PlayStrategy.named(options.getOrDefault("policy", "q64")), sizing,
+                Integer.parseInt(options.getOrDefault("bankroll", "100")),
+                Integer.parseInt(options.getOrDefault("session-rounds", "1000")));
+        Report report = simulator.run(
+                Long.parseLong(options.getOrDefault("rounds", "100000000")),
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Long.parseLong(options.getOrDefault("seed", "1")));
+        System.out.println(report.describe());
+    }
+
+    /**
+     * Simulate sessions until about the given number of rounds is reached. Ruined sessions end
+     * early, so fewer rounds may be played; the report has the exact count.
+     * @param rounds Rounds to budget for; rounded down to whole sessions, at least one.
+     * @param threads Threads to spread the sessions across.
+     * @param seed Seed of the root random generator.
+     * @return Totals over every session.
+     */
+    public Report run(long rounds, int threads, long seed) throws InterruptedException {
+        long sessions = Math.max(1, rounds / sessionRounds);
+        threads = (int) Math.max(1, Math.min(threads, sessions));
+        SplittableRandom root = new SplittableRandom(seed);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "round-simulator-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<Worker>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(root.split()); // Split here; SplittableRandom is not thread-safe
+                long share = sessions / threads + (i < sessions % threads ? 1 : 0);
+                futures.add(pool.submit(() -> {
+                    for (long s = 0; s < share; s++) {
+                        worker.playSession();
+                    }
+                    return worker;
+                }));
+            }
+            Report report = new Report();
+            for (Future<Worker> future : futures) {
+                report.add(future.get());
+            }
+            report.elapsedNanos = System.nanoTime() - start;
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return A single-threaded player with its own generator, for benchmarks.
+     */
+    Worker newWorker(long seed) {
+        return new Worker(new SplittableRandom(seed));
+    }
+
+    /**
+     * Plays rounds on one thread and keeps its own totals.
+     */
+    final class Worker {
+        private final SplittableRandom random;
+        private final int[] deck = new int[Card.COUNT]; // Card ordinals, reordered in place by each deal
+        private final Player player = new Player();
+        long rounds;
+        long sessions;
+        long ruined;
+        long wagered; // Ante, play and pair plus bets placed
+        long net; // Sum of round results
+        double netSquares; // Sum of squared round results
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = i;
+            }
+        }
+
+        /**
+         * Play one session from the starting bankroll until it ends or is ruined.
+         */
+        void playSession() {
+            sessions++;
+            player.setTotalWinnings(bankroll);
+            for (int round = 0; round < sessionRounds; round++) {
+                if (!playRound()) {
+                    ruined++;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Play rounds outside of any session, with the bankroll topped up whenever it runs out.
+         * @return Net result of the rounds.
+         */
+        long playRounds(int count) {
+            long before = net;
+            for (int round = 0; round < count; round++) {
+                if (!playRound()) {
+                    player.setTotalWinnings(bankroll);
+                }
+            }
+            return net - before;
+        }
+
+        // Returns false, without playing, if the bankroll cannot cover the bets
+        private boolean playRound() {
+            sizing.placeBets(player);
+            int ante = player.getAnteBet();
+            int pairPlus = player.getPairPlusBet();
+            if (player.getTotalWinnings() < 2 * ante + pairPlus) {
+                return false;
+            }
+            // Partial Fisher-Yates: the last six slots become a uniformly random deal
+            for (int i = Card.COUNT - 1; i >= Card.COUNT - 6; i--) {
+                int j = random.nextInt(i + 1);
+                int t = deck[i];
+                deck[i] = deck[j];
+                deck[j] = t;
+            }
+            int playerScore = HandLookupTable.score(deck[51], deck[50], deck[49]);
+            int result;
+            if (strategy.play(playerScore, player)) {
+                player.setPlayBet(ante);
+                int dealerScore = HandLookupTable.score(deck[48], deck[47], deck[46]);
+                result = Paytable.playWinnings(playerScore, dealerScore, ante, pairPlus);
+                wagered += 2 * ante + pairPlus;
+            } else {
+                player.setPlayBet(0);
+                result = Paytable.foldWinnings(ante, pairPlus);
+                wagered += ante + pairPlus;
+            }
+            player.setTotalWinnings(player.getTotalWinnings() + result);
+            rounds++;
+            net += result;
+            netSquares += (double) result * result;
+            return true;
+        }
+    }
+
+    /**
+     * Totals of a simulation run.
+     */
+    public static final class Report {
+        private long rounds;
+        private long sessions;
+        private long ruined;
+        private long wagered;
+        private long net;
+        private double netSquares;
+        private long elapsedNanos;
+
+        void add(Worker worker) {
+            rounds += worker.rounds;
+            sessions += worker.sessions;
+            ruined += worker.ruined;
+            wagered += worker.wagered;
+            net += worker.net;
+            netSquares += worker.netSquares;
+        }
+
+        public long getRounds() {
+            return rounds;
+        }
+
+        public long getSessions() {
+            return sessions;
+        }
+
+        /**
+         * @return Net result of all rounds, in dollars.
+         */
+        public long getNet() {
+            return net;
+        }
+
+        /**
+         * @return Return to player: amount paid back per dollar wagered, e.g. 0.98.
+         */
+        public double getRtp() {
+            return wagered == 0 ? 0 : (wagered + net) / (double) wagered;
+        }
+
+        /**
+         * @return Mean net result per round, in dollars.
+         */
+        public double getMeanNet() {
+            return rounds == 0 ? 0 : net / (double) rounds;
+        }
+
+        /**
+         * @return Variance of the net result per round, in dollars squared.
+         */
+        public double getVariance() {
+            if (rounds < 2) {
+                return 0;
+            }
+            double mean = getMeanNet();
+            return (netSquares - rounds * mean * mean) / (rounds - 1);
+        }
+
+        /**
+         * @return Fraction of sessions that ran out of money before their last round.
+         */
+        public double getRiskOfRuin() {
+            return sessions == 0 ? 0 : ruined / (double) sessions;
+        }
+
+        public double getRoundsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rounds * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return Multi-line summary, for printing.
+         */
+        public String describe() {
+            return String.format("%d rounds in %.2fs (%.1fM rounds/s)%n"
+                            + "RTP %.4f%%, mean %+.4f per round, variance %.3f (sd %.3f)%n"
+                            + "Risk of ruin %.4f%% (%d of %d sessions)",
+                    rounds, elapsedNanos / 1e9, getRoundsPerSecond() / 1e6,
+                    100 * getRtp(), getMeanNet(), getVariance(), Math.sqrt(getVariance()),
+                    100 * getRiskOfRuin(), ruined, sessions);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+// ScreenManager.java
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import java.io.IOException;
+
+/**
+ * Owns the client's screens. Each FXML file is parsed once, on first use, and its scene graph
+ * and controller are kept for the life of the application; switching screens only swaps the
+ * stage's scene or toggles the results overlay, so no loader, controller or nodes are created
+ * between hands. Controllers are reused, so callers rebind their state when a screen is shown
+ * again (see ClientController.reset and WelcomeClientController.reset).
+ *
+ * All methods must be called on the JavaFX Application Thread, except loadGame, which parses
+ * the game and results screens and may run on a background thread (see StartupWarmup).
+ */
+public class ScreenManager {
+    private final Stage stage;
+
+    private Scene welcomeScene;
+    private WelcomeClientController welcomeController;
+    private Scene gameScene; // Game screen with the results screen stacked on top of it
+    private Parent gameRoot; // Parsed game screen, not yet in a scene until first needed
+    private ClientController gameController;
+    private Parent resultsRoot; // Overlay; hidden except at the end of a round
+    private ResultsController resultsController;
+
+    private long lastSwitchNanos; // Time taken by the most recent screen switch
+
+    /**
+     * @param stage The window the screens are shown in.
+     */
+    public ScreenManager(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Show the welcome screen.
+     * @return Its controller, already reset for a new connection attempt.
+     */
+    public WelcomeClientController showWelcome() throws IOException {
+        long start = System.nanoTime();
+        welcome();
+        welcomeController.reset();
+        show(welcomeScene, "Three Card Poker Client - Welcome", start);
+        return welcomeController;
+    }
+
+    /**
+     * Show the game screen with the results overlay hidden.
+     * @return The game controller; it keeps its state from the previous time it was shown.
+     */
+    public ClientController showGame() throws IOException {
+        long start = System.nanoTime();
+        game();
+        resultsRoot.setVisible(false);
+        show(gameScene, "Three Card Poker Client - Game", start);
+        return gameController;
+    }
+
+    /**
+     * Show the results of a round over the game screen.
+     * @param msg Result message to display.
+     * @param roundWinnings Amount won or lost in the round.
+     * @return The results controller.
+     */
+    public ResultsController showResults(String msg, int roundWinnings) throws IOException {
+        long start = System.nanoTime();
+        game();
+        resultsController.setResults(msg, roundWinnings);
+        resultsRoot.setVisible(true);
+        resultsRoot.toFront();
+        show(gameScene, "Three Card Poker Client - Results", start);
+        return resultsController;
+    }
+
+    public WelcomeClientController getWelcomeController() throws IOException {
+        welcome();
+        return welcomeController;
+    }
+
+    public ClientController getGameController() throws IOException {
+        game();
+        return gameController;
+    }
+
+    public ResultsController getResultsController() throws IOException {
+        game();
+        return resultsController;
+    }
+
+    /**
+     * @return The scene holding the game and results screens.
+     */
+    public Scene getGameScene() throws IOException {
+        game();
+        return gameScene;
+    }
+
+    /**
+     * Parse the game and results screens if that has not happened yet. Safe on any thread,
+     * since the nodes are not in a showing window; if the FX thread needs the screens while a
+     * background load is running, it waits for that load instead of starting another.
+     */
+    public synchronized void loadGame() throws IOException {
+        if (gameRoot != null) {
+            return;
+        }
+        FXMLLoader gameLoader = new FXMLLoader(getClass().getResource("/ClientGUI.fxml"));
+        Parent game = gameLoader.load();
+        FXMLLoader resultsLoader = new FXMLLoader(getClass().getResource("/ResultsScreen.fxml"));
+        Parent results = resultsLoader.load();
+        results.setStyle("-fx-background-color: rgba(255, 255, 255, 0.92);"); // Covers the table like the old results scene did
+        results.setVisible(false);
+
+        gameController = gameLoader.getController();
+        resultsRoot = results;
+        resultsController = resultsLoader.getController();
+        gameRoot = game;
+    }
+
+    /**
+     * Put the game screen in its scene and run the first CSS and layout pass now, so the first
+     * switch to it does not pay for stylesheet loading and skin creation.
+     */
+    public void prepareGame() throws IOException {
+        game();
+        Parent root = gameScene.getRoot();
+        root.applyCss();
+        root.layout();
+    }
+
+    /**
+     * @return Time the most recent screen switch took, in nanoseconds.
+     */
+    public long getLastSwitchNanos() {
+        return lastSwitchNanos;
+    }
+
+    private void show(Scene scene, String title, long start) {
+        if (stage.getScene() != scene) {
+            stage.setScene(scene);
+        }
+        stage.setTitle(title);
+        if (!stage.isShowing()) {
+            stage.show();
+        }
+        lastSwitchNanos = System.nanoTime() - start;
+    }
+
+    private void welcome() throws IOException {
+        if (welcomeScene != null) {
+            return;
+        }
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/WelcomeClient.fxml"));
+        welcomeScene = new Scene(loader.load(), 500, 300);
+        welcomeScene.getRoot().setStyle("-fx-background-color: green;");
+        welcomeController = loader.getController();
+    }
+
+    private void game() throws IOException {
+        if (gameScene != null) {
+            return;
+        }
+        loadGame();
+        gameScene = new Scene(new StackPane(gameRoot, resultsRoot), 900, 700);
+    }
+}
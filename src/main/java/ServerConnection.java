@@ -0,0 +1,151 @@
+// ServerConnection.java
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A connection to the server that is already open, so the welcome screen's reachability check
+ * and the game session share one TCP connection instead of connecting twice.
+ * In blocking mode it holds the socket and its opened PokerStream; in NIO mode it holds a
+ * connected channel for the transport to adopt. Connecting gives up after a timeout taken
+ * from the poker.connectTimeoutMs system property rather than waiting for the OS default.
+ */
+public final class ServerConnection {
+    static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private final String host;
+    private final int port;
+    private final WireFormat wireFormat;
+    private final Socket socket; // Blocking mode
+    private final PokerStream stream; // Blocking mode
+    private final SocketChannel channel; // NIO mode
+    private final NioTransport transport; // NIO mode
+
+    private ServerConnection(String host, int port, WireFormat wireFormat, Socket socket, PokerStream stream,
+                             SocketChannel channel, NioTransport transport) {
+        this.host = host;
+        this.port = port;
+        this.wireFormat = wireFormat;
+        this.socket = socket;
+        this.stream = stream;
+        this.channel = channel;
+        this.transport = transport;
+    }
+
+    /**
+     * Connect using the transport, wire format and timeout selected by system properties.
+     * @param host Server IP address or name.
+     * @param port Server port number.
+     * @return The open connection.
+     * @throws IOException if the server cannot be reached within the timeout.
+     */
+    public static ServerConnection open(String host, int port) throws IOException {
+        int timeout = connectTimeoutMillis();
+        return NioTransport.isSelected()
+                ? openNonBlocking(host, port, NioTransport.shared(), timeout)
+                : openBlocking(host, port, WireFormat.fromSystemProperty(), timeout);
+    }
+
+    /**
+     * Connect a blocking socket and open its PokerStream. The stream setup waits for the
+     * server's side of the handshake (the serialization header for JAVA), bounded by the same
+     * timeout, so a port that accepts but never answers is reported here too.
+     * @param host Server IP address or name.
+     * @param port Server port number.
+     * @param wireFormat Encoding to use on the connection.
+     * @param timeoutMillis Maximum time to connect, and to wait for the handshake.
+     * @return The open connection.
+     */
+    public static ServerConnection openBlocking(String host, int port, WireFormat wireFormat, int timeoutMillis) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            PokerStream stream = wireFormat.open(socket.getInputStream(), socket.getOutputStream());
+            socket.setSoTimeout(0); // Game traffic waits on the player, not the network
+            return new ServerConnection(host, port, wireFormat, socket, stream, null, null);
+        } catch (SocketTimeoutException e) {
+            socket.close();
+            throw new SocketTimeoutException("No answer from " + host + ":" + port + " within " + timeoutMillis + " ms");
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Connect a channel for a non-blocking transport. The connect itself blocks, up to the
+     * timeout, so failures surface before the game screen opens.
+     * @param host Server IP address or name.
+     * @param port Server port number.
+     * @param transport NioTransport that will drive the connection.
+     * @param timeoutMillis Maximum time to connect.
+     * @return The open connection.
+     */
+    public static ServerConnection openNonBlocking(String host, int port, NioTransport transport, int timeoutMillis) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(host, port), timeoutMillis);
+            return new ServerConnection(host, port, WireFormat.BINARY, null, null, channel, transport);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Connect timeout from poker.connectTimeoutMs, in milliseconds.
+     */
+    public static int connectTimeoutMillis() {
+        return Integer.getInteger("poker.connectTimeoutMs", DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * @return true if the connection is meant for a NioTransport.
+     */
+    public boolean isNonBlocking() {
+        return channel != null;
+    }
+
+    Socket getSocket() {
+        return socket;
+    }
+
+    PokerStream getStream() {
+        return stream;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    NioTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Close a connection that was never handed to a ClientNetworkThread.
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        } else {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+// SessionReplay.java
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a recorded session (see HandHistoryRecorder) back into the client without a server,
+ * so slow update handling shows up as numbers. Received messages are rebuilt into full updates
+ * with a GameStateModel, exactly as ClientNetworkThread does, and handed to a Target; sent
+ * messages are skipped.
+ *
+ * Replay runs at the original timing, scaled by a speed factor, or as fast as possible with
+ * speed 0. Each frame's processing time is recorded, and with a Scene attached so is the
+ * duration of every FX pulse, measured from its pre-layout to its post-layout listener
+ * (CSS and layout; rendering happens after that).
+ *
+ * Usage: java SessionReplay &lt;history directory or segment&gt; [speed], replays into a
+ * HeadlessTarget. In the client, -Dpoker.replay=&lt;dir&gt; and -Dpoker.replaySpeed replay into
+ * the game screen instead of connecting.
+ */
+public class SessionReplay {
+    /**
+     * Receives the replayed updates.
+     */
+    public interface Target {
+        /**
+         * Handle one update; the time this takes is the frame's processing time.
+         * @param update A complete update, as ClientController.handleServerUpdate receives it.
+         */
+        void deliver(PokerInfo update);
+    }
+
+    private final List<PokerInfo> frames = new ArrayList<>(); // Received messages, as recorded
+    private final List<Long> times = new ArrayList<>(); // Their recording times, in nanoseconds
+    private final LatencyHistogram processing = new LatencyHistogram();
+    private final LatencyHistogram pulses = new LatencyHistogram();
+    private final LatencyHistogram lateness = new LatencyHistogram(); // Behind schedule at delivery, original timing only
+    private volatile long pulseStart;
+
+    /**
+     * @param entries Recorded entries, oldest first.
+     */
+    public SessionReplay(List<HandHistoryReader.Entry> entries) {
+        for (HandHistoryReader.Entry entry : entries) {
+            if (entry.getDirection() == HandHistoryRecorder.Direction.RECEIVED) {
+                frames.add(entry.getInfo());
+                times.add(entry.getNanos());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java SessionReplay <history directory or segment> [speed, 0 = as fast as possible]");
+            return;
+        }
+        SessionReplay replay = new SessionReplay(HandHistoryReader.readAll(Paths.get(args[0])));
+        HeadlessTarget target = new HeadlessTarget();
+        System.out.println(replay.run(target, args.length > 1 ? Double.parseDouble(args[1]) : 0));
+        System.out.println(target.describe());
+    }
+
+    /**
+     * Replay a recording into the client's game screen, as selected by poker.replay.
+     * Runs on its own thread and prints the report when done.
+     * @param path History directory or segment.
+     * @param controller Controller of the game screen, already showing.
+     * @param scene The game screen's scene, whose pulses are timed.
+     */
+    public static void replayInto(Path path, ClientController controller, Scene scene) throws IOException {
+        SessionReplay replay = new SessionReplay(HandHistoryReader.readAll(path));
+        double speed = Double.parseDouble(System.getProperty("poker.replaySpeed", "1"));
+        Thread thread = new Thread(() -> {
+            replay.attach(scene);
+            System.out.println(replay.run(controllerTarget(controller), speed));
+        }, "session-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return Target that hands updates to a controller on a running FX toolkit. Each frame
+     *         counts as processed once the FX thread has applied it, so its time includes the
+     *         hop to the FX thread and the controller's rendering work.
+     */
+    public static Target controllerTarget(ClientController controller) {
+        return update -> {
+            controller.handleServerUpdate(update);
+            CountDownLatch applied = new CountDownLatch(1);
+            Platform.runLater(applied::countDown); // Queued behind the controller's own update task
+            try {
+                applied.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    /**
+     * Time every pulse of a scene during the replay. Safe to call from any thread.
+     * @param scene Scene to watch.
+     */
+    public void attach(Scene scene) {
+        Runnable pre = () -> pulseStart = System.nanoTime();
+        Runnable post = () -> pulses.record(System.nanoTime() - pulseStart);
+        Platform.runLater(() -> {
+            scene.addPreLayoutPulseListener(pre);
+            scene.addPostLayoutPulseListener(post);
+        });
+    }
+
+    /**
+     * @return Number of received messages in the recording.
+     */
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    /**
+     * Replay every received message into the target on the calling thread.
+     * @param target Where the updates go.
+     * @param speed 1 for the original timing, 2 for twice as fast and so on; 0 for as fast as possible.
+     * @return The measurements.
+     */
+    public Report run(Target target, double speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed must not be negative");
+        }
+        GameStateModel model = new GameStateModel();
+        int delivered = 0;
+        int skipped = 0;
+        long start = System.nanoTime();
+        long first = times.isEmpty() ? 0 : times.get(0);
+        for (int i = 0; i < frames.size(); i++) {
+            if (speed > 0) {
+                long due = start + (long) ((times.get(i) - first) / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                lateness.record(System.nanoTime() - due);
+            }
+            PokerInfo update = model.apply(frames.get(i));
+            if (update == null) {
+                skipped++; // A delta after a gap; the live client would have asked for a resync
+                continue;
+            }
+            long t0 = System.nanoTime();
+            target.deliver(update);
+            processing.record(System.nanoTime() - t0);
+            delivered++;
+        }
+        return new Report(delivered, skipped, System.nanoTime() - start);
+    }
+
+    /**
+     * @return Processing time of each frame so far, in nanoseconds.
+     */
+    public LatencyHistogram getProcessing() {
+        return processing;
+    }
+
+    /**
+     * @return Duration of each pulse of the attached scene, in nanoseconds.
+     */
+    public LatencyHistogram getPulses() {
+        return pulses;
+    }
+
+    /**
+     * Outcome of a replay run.
+     */
+    public final class Report {
+        private final int delivered;
+        private final int skipped;
+        private final long elapsedNanos;
+
+        Report(int delivered, int skipped, long elapsedNanos) {
+            this.delivered = delivered;
+            this.skipped = skipped;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * @return Deltas that could not be applied because an earlier message was missing.
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(String.format("Replayed %d frames (%d skipped) in %.1f ms",
+                    delivered, skipped, elapsedNanos / 1e6));
+            out.append(line("frame", processing));
+            out.append(line("FX pulse", pulses));
+            out.append(line("lateness", lateness));
+            return out.toString();
+        }
+
+        private String line(String name, LatencyHistogram h) {
+            if (h.getCount() == 0) {
+                return "";
+            }
+            return String.format("%n  %-9s %6d   p50 %8.1f us   p99 %8.1f us   max %8.1f us", name, h.getCount(),
+                    h.getPercentile(50) / 1e3, h.getPercentile(99) / 1e3, h.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Target that does the client's per-update work without a display: the same UpdatePipeline
+     * batching and round phase tracking, the game log, and the hand labels. Updates are drained
+     * immediately on the replay thread, so each frame is measured on its own.
+     */
+    public static class HeadlessTarget implements Target {
+        private final PhaseStateMachine phases = new PhaseStateMachine();
+        private final GameLog log = new GameLog(GameLog.DEFAULT_CAPACITY, null);
+        private int renders;
+        private int events;
+        private String playerHand = "";
+        private String dealerHand = "";
+
+        private final UpdatePipeline updates = new UpdatePipeline(new UpdatePipeline.Sink() {
+            @Override
+            public boolean isEvent(PokerInfo info) {
+                GamePhase phase = GamePhase.of(info);
+                return phase == GamePhase.RESULTS || phase.startsRound();
+            }
+
+            @Override
+            public void handleEvent(PokerInfo info) {
+                events++;
+                if (phases.advance(info) != GamePhase.RESULTS) {
+                    log.appendText("Place your bets.\n");
+                }
+                playerHand = "";
+                dealerHand = "";
+            }
+
+            @Override
+            public void appendLog(String text) {
+                log.appendText(text);
+            }
+
+            @Override
+            public void render(PokerInfo info) {
+                renders++;
+                phases.advance(info);
+                playerHand = label(info.getPlayerHand());
+                dealerHand = info.isDealerCardsRevealed() ? label(info.getDealerHand()) : "";
+            }
+        }, Runnable::run);
+
+        @Override
+        public void deliver(PokerInfo update) {
+            updates.submit(update);
+        }
+
+        public GamePhase getPhase() {
+            return phases.getCurrent();
+        }
+
+        public int getRenders() {
+            return renders;
+        }
+
+        public int getEvents() {
+            return events;
+        }
+
+        public GameLog getLog() {
+            return log;
+        }
+
+        /**
+         * @return Label of the player's hand as the game screen would show it.
+         */
+        public String getPlayerHand() {
+            return playerHand;
+        }
+
+        public String getDealerHand() {
+            return dealerHand;
+        }
+
+        public String describe() {
+            return "Headless client: " + renders + " renders, " + events + " events, " + log.size()
+                    + " log lines, phase " + getPhase() + ", " + phases.getUnexpectedTransitions() + " unexpected transitions";
+        }
+
+        private static String label(List<Card> hand) {
+            return hand != null && hand.size() == 3 ? HandEvaluator.label(HandLookupTable.score(hand)) : "";
+        }
+    }
+}
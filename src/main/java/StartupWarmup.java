@@ -0,0 +1,193 @@
+// StartupWarmup.java
+import javafx.application.Platform;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work the first hand would otherwise pay for, started at launch while the player is still on
+ * the welcome screen: parsing the game and results FXML, decoding card images, initializing
+ * the binary codec, the serialization descriptors of the message classes and the hand lookup
+ * table behind the equity calculator, mapping the strategy table, and finally the first CSS
+ * and layout pass of the game scene. The independent tasks run in parallel on background
+ * threads; only the CSS pass, which needs the scene, runs on the FX thread.
+ *
+ * Each task's time is recorded along with milestones measured from JVM start, so the startup
+ * breakdown and the time to the first playable hand end up in the log.
+ */
+public class StartupWarmup {
+    private final Map<String, Long> taskMillis = new LinkedHashMap<>(); // Task name to time taken, in completion order
+    private final Map<String, Long> milestones = new LinkedHashMap<>(); // Milestone to JVM uptime when reached
+
+    /**
+     * Start every warm-up task.
+     * @param screens Screen manager whose game screen should be parsed and prepared.
+     * @return Completes when every task, including the CSS pass, has finished.
+     */
+    public CompletableFuture<Void> start(ScreenManager screens) {
+        mark("warm-up started");
+        int threads = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1)); // Leave a core for the FX thread
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "startup-warmup-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        CompletableFuture<Void> fxml = task("FXML", pool, () -> {
+            try {
+                screens.loadGame();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        tasks.add(fxml);
+        tasks.add(task("codec", pool, StartupWarmup::warmCodec));
+        tasks.add(task("serialization", pool, StartupWarmup::warmSerialization));
+        tasks.add(task("equity", pool, StartupWarmup::warmEquity));
+        long imagesStart = System.nanoTime();
+        tasks.add(CardImageCache.preload().thenRun(() -> record("card images", imagesStart))); // Decodes on its own thread
+        long strategyStart = System.nanoTime();
+        tasks.add(StrategyTable.preload().thenRun(() -> record("strategy table", strategyStart))); // Maps it if present
+        tasks.add(fxml.thenRunAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                screens.prepareGame();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            record("CSS and layout", start);
+        }, Platform::runLater));
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).whenComplete((done, error) -> {
+            pool.shutdown();
+            mark("warm-up finished");
+            if (error != null) {
+                System.err.println("Startup warm-up incomplete: " + error.getMessage());
+            }
+            System.out.println(describe());
+        });
+    }
+
+    /**
+     * Record that the application reached a point in its startup.
+     * @param milestone Name of the milestone; only the first time each is reached counts.
+     */
+    public void mark(String milestone) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        synchronized (this) {
+            if (milestones.putIfAbsent(milestone, uptime) != null) {
+                return;
+            }
+        }
+        System.out.println("Startup: " + milestone + " at " + uptime + " ms");
+    }
+
+    /**
+     * @return Time taken by each finished task, in milliseconds.
+     */
+    public synchronized Map<String, Long> getTaskMillis() {
+        return new LinkedHashMap<>(taskMillis);
+    }
+
+    /**
+     * @return Milestones reached so far, as milliseconds since JVM start.
+     */
+    public synchronized Map<String, Long> getMilestones() {
+        return new LinkedHashMap<>(milestones);
+    }
+
+    /**
+     * @return Multi-line startup breakdown, for logging.
+     */
+    public synchronized String describe() {
+        StringBuilder out = new StringBuilder("Startup breakdown:");
+        for (Map.Entry<String, Long> task : taskMillis.entrySet()) {
+            out.append(String.format("%n  %-16s %6d ms", task.getKey(), task.getValue()));
+        }
+        for (Map.Entry<String, Long> milestone : milestones.entrySet()) {
+            out.append(String.format("%n  %-16s at %3d ms", milestone.getKey(), milestone.getValue()));
+        }
+        return out.toString();
+    }
+
+    private CompletableFuture<Void> task(String name, ExecutorService pool, Runnable work) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            work.run();
+            record(name, start);
+        }, pool);
+    }
+
+    private synchronized void record(String name, long startNanos) {
+        taskMillis.put(name, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    // Round-trip a full message so the codec classes are loaded and initialized
+    static void warmCodec() {
+        PokerInfo sample = sampleMessage();
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        PokerInfoCodec.writeFrame(sample, buffer);
+        buffer.flip();
+        try {
+            PokerInfoCodec.readFrame(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Build the hand lookup table and run one equity calculation, so the first dealt hand gets
+    // its Play/Fold advice in microseconds rather than after class loading and JIT
+    static void warmEquity() {
+        new EquityCalculator().evaluate(sampleMessage().getPlayerHand(), 1, 0);
+    }
+
+    // Compute the serialization descriptors of the message classes, which the first
+    // ObjectOutputStream write would otherwise do while the player waits
+    static void warmSerialization() {
+        ObjectStreamClass.lookup(PokerInfo.class);
+        ObjectStreamClass.lookup(Card.class);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(sampleMessage());
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                in.readObject();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PokerInfo sampleMessage() {
+        PokerInfo info = new PokerInfo();
+        info.setAction(PokerInfo.Action.UPDATE);
+        info.setPhase(GamePhase.CARDS_DEALT);
+        info.setMessage("warm-up");
+        ArrayList<Card> hand = new ArrayList<>();
+        hand.add(Card.of('H', 14));
+        hand.add(Card.of('S', 13));
+        hand.add(Card.of('D', 12));
+        info.setPlayerHand(hand);
+        info.setPlayerBalance(100);
+        return info;
+    }
+}
@@ -0,0 +1,227 @@
+// StrategyTable.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * EV-optimal Play/Fold decisions for all 22,100 player hands, generated offline with
+ * EquityCalculator and read at runtime from a memory-mapped file, so a hint is one indexed
+ * read with nothing computed and next to nothing on the heap.
+ *
+ * File layout, little-endian: magic "TCPS", version, record count, record size, then one
+ * 8-byte record per hand in HandLookupTable index order:
+ * float expected result of playing per unit of ante (ante bonus and showdown, pair plus aside),
+ * byte pair plus result per unit of the pair plus bet, byte flags (bit 0: play with an ante
+ * only), two bytes of padding. Since folding loses the ante and the pair plus bet, the best
+ * decision for any bets is a comparison of two products and sums.
+ *
+ * Generate with: java StrategyTable [file]. The client maps poker.strategyTable (default
+ * strategy.tbl in the working directory); if it is missing there are no hints, unless
+ * poker.strategyGenerate=true asks the client to generate it first.
+ */
+public final class StrategyTable {
+    static final int MAGIC = 0x53504354; // "TCPS" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 8;
+    static final int FLAG_PLAY = 1;
+    static final String DEFAULT_FILE = "strategy.tbl";
+
+    private static volatile CompletableFuture<StrategyTable> loading; // Shared load of the default table
+
+    private final ByteBuffer records; // Read-only view of the mapped records
+
+    private StrategyTable(ByteBuffer records) {
+        this.records = records;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        generate(path);
+        System.out.println("Wrote " + HandLookupTable.COMBINATIONS + " hands to " + path + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Compute every hand's decision and write the table. The file is replaced atomically, so
+     * a reader never maps a half-written table.
+     * @param path File to write.
+     */
+    public static void generate(Path path) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + HandLookupTable.COMBINATIONS * RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(HandLookupTable.COMBINATIONS).putInt(RECORD_BYTES);
+        EquityCalculator calculator = new EquityCalculator();
+        // Same loop order as HandLookupTable, so records come out in index order
+        for (int c = 2; c < Card.COUNT; c++) {
+            for (int b = 1; b < c; b++) {
+                for (int a = 0; a < b; a++) {
+                    List<Card> hand = List.of(Card.ofOrdinal(a), Card.ofOrdinal(b), Card.ofOrdinal(c));
+                    EquityCalculator.Equity equity = calculator.evaluate(hand, 1, 0);
+                    out.putFloat((float) equity.getPlayEv());
+                    out.put((byte) Paytable.pairPlusResult(HandLookupTable.score(a, b, c), 1));
+                    out.put((byte) (equity.shouldPlay() ? FLAG_PLAY : 0));
+                    out.putShort((short) 0);
+                }
+            }
+        }
+        out.flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a generated table.
+     * @param path Table file.
+     * @return The table.
+     * @throws IOException if the file is missing, truncated or from another version.
+     */
+    public static StrategyTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long expected = HEADER_BYTES + (long) HandLookupTable.COMBINATIONS * RECORD_BYTES;
+            if (channel.size() != expected) {
+                throw new IOException("Strategy table " + path + " has " + channel.size() + " bytes, expected " + expected);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected); // Stays valid after close
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION
+                    || map.getInt(8) != HandLookupTable.COMBINATIONS || map.getInt(12) != RECORD_BYTES) {
+                throw new IOException("Not a version " + VERSION + " strategy table: " + path);
+            }
+            map.position(HEADER_BYTES);
+            return new StrategyTable(map.slice().order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Start mapping the default table on a background thread. Safe to call repeatedly.
+     * @return Future completed with the table, or with null if there is no table file and
+     *         poker.strategyGenerate is not set.
+     */
+    public static CompletableFuture<StrategyTable> preload() {
+        CompletableFuture<StrategyTable> f = loading;
+        if (f == null) {
+            synchronized (StrategyTable.class) {
+                f = loading;
+                if (f == null) {
+                    f = new CompletableFuture<>();
+                    loading = f;
+                    CompletableFuture<StrategyTable> target = f;
+                    Thread loader = new Thread(() -> {
+                        try {
+                            target.complete(load(Paths.get(System.getProperty("poker.strategyTable", DEFAULT_FILE))));
+                        } catch (Throwable t) {
+                            target.completeExceptionally(t);
+                        }
+                    }, "strategy-table-preload");
+                    loader.setDaemon(true);
+                    loader.start();
+                }
+            }
+        }
+        return f;
+    }
+
+    // Map the table, or generate it first only when explicitly asked to; the generator is an offline tool
+    static StrategyTable load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            if (!Boolean.getBoolean("poker.strategyGenerate")) {
+                System.out.println("No strategy table at " + path.toAbsolutePath()
+                        + "; play hints are off (create it with java StrategyTable)");
+                return null;
+            }
+            System.out.println("Generating strategy table " + path.toAbsolutePath());
+            generate(path);
+        }
+        return open(path);
+    }
+
+    /**
+     * @return The default table if it has finished loading, otherwise null. Never blocks.
+     */
+    public static StrategyTable getIfLoaded() {
+        CompletableFuture<StrategyTable> f = loading;
+        return f != null && f.isDone() && !f.isCompletedExceptionally() ? f.join() : null;
+    }
+
+    /**
+     * @param hand The player's three cards.
+     * @param ante Ante bet; the play bet equals it.
+     * @param pairPlus Pair plus bet, or 0.
+     * @return true if playing has the higher expected value.
+     */
+    public boolean shouldPlay(List<Card> hand, int ante, int pairPlus) {
+        int offset = offsetOf(hand);
+        if (pairPlus == 0) {
+            return (records.get(offset + 5) & FLAG_PLAY) != 0;
+        }
+        return playEv(offset, ante, pairPlus) >= Paytable.foldWinnings(ante, pairPlus);
+    }
+
+    /**
+     * @param hand The player's three cards.
+     * @param ante Ante bet; the play bet equals it.
+     * @param pairPlus Pair plus bet, or 0.
+     * @return Expected net result of playing, in dollars.
+     */
+    public double playEv(List<Card> hand, int ante, int pairPlus) {
+        return playEv(offsetOf(hand), ante, pairPlus);
+    }
+
+    /**
+     * Judge a decision already made, e.g. from a hand history.
+     * @param played true if the player played, false if they folded.
+     * @return true if it was the EV-optimal decision.
+     */
+    public boolean wasRight(List<Card> hand, int ante, int pairPlus, boolean played) {
+        return played == shouldPlay(hand, ante, pairPlus);
+    }
+
+    /**
+     * @return Expected value given up by the decision, in dollars; 0 for the right decision.
+     */
+    public double cost(List<Card> hand, int ante, int pairPlus, boolean played) {
+        double play = playEv(hand, ante, pairPlus);
+        double fold = Paytable.foldWinnings(ante, pairPlus);
+        return Math.max(play, fold) - (played ? play : fold);
+    }
+
+    /**
+     * @return One-line recommendation for the player.
+     */
+    public String hint(List<Card> hand, int ante, int pairPlus) {
+        double play = playEv(hand, ante, pairPlus);
+        double fold = Paytable.foldWinnings(ante, pairPlus);
+        return String.format("Recommended: %s (Play EV %+.2f vs Fold %+.2f)",
+                shouldPlay(hand, ante, pairPlus) ? "Play" : "Fold", play, fold);
+    }
+
+    private double playEv(int offset, int ante, int pairPlus) {
+        return records.getFloat(offset) * ante + records.get(offset + 4) * pairPlus;
+    }
+
+    private static int offsetOf(List<Card> hand) {
+        if (hand == null || hand.size() != 3) {
+            throw new IllegalArgumentException("A three card hand is required");
+        }
+        return HandLookupTable.index(hand.get(0).ordinal(), hand.get(1).ordinal(), hand.get(2).ordinal()) * RECORD_BYTES;
+    }
+}
@@ -0,0 +1,55 @@
+// StreamResetPolicy.java
+
+/**
+ * Decides when an ObjectOutputStream should be reset.
+ * Without resets the stream's handle table keeps a reference to every object ever written,
+ * and the peer's ObjectInputStream keeps a matching table, so both sides grow for the whole session.
+ * A reset clears the local table and writes a marker that clears the peer's table too.
+ */
+public final class StreamResetPolicy {
+    /** Reset after 64 messages or 64 KB, whichever comes first. */
+    public static final StreamResetPolicy DEFAULT = new StreamResetPolicy(64, 64 * 1024);
+
+    private final int maxMessages;
+    private final long maxBytes;
+
+    /**
+     * @param maxMessages Reset after this many messages (0 disables the message trigger).
+     * @param maxBytes Reset once this many bytes were written since the last reset (0 disables the size trigger).
+     */
+    public StreamResetPolicy(int maxMessages, long maxBytes) {
+        if (maxMessages < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Reset thresholds cannot be negative");
+        }
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Build a policy from the poker.resetMessages and poker.resetBytes system properties,
+     * falling back to DEFAULT for anything unset.
+     * @return The configured policy.
+     */
+    public static StreamResetPolicy fromSystemProperties() {
+        return new StreamResetPolicy(
+                Integer.getInteger("poker.resetMessages", DEFAULT.maxMessages),
+                Long.getLong("poker.resetBytes", DEFAULT.maxBytes));
+    }
+
+    /**
+     * @param messages Messages written since the last reset.
+     * @param bytes Bytes written since the last reset.
+     * @return true if the stream should be reset now.
+     */
+    public boolean shouldReset(int messages, long bytes) {
+        return (maxMessages > 0 && messages >= maxMessages) || (maxBytes > 0 && bytes >= maxBytes);
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
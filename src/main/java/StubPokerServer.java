@@ -0,0 +1,396 @@
+// StubPokerServer.java
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embeddable Three Card Poker server for local benchmarks and integration tests.
+ * It speaks the same PokerInfo protocol as the real server, including the message phrases
+ * ClientController keys on, deals real shuffled hands and settles ante, play and pair plus bets.
+ * Every response can be delayed by a fixed latency to imitate a remote server, and responses
+ * can be sent as numbered deltas with periodic snapshots (see DeltaEncoder).
+ * Each table outlives its connection: the CONNECT response carries a resume token, and a client
+ * that reconnects with that token gets its table back mid-hand. The CONNECT response also
+ * advertises PokerInfo.CAP_BATCH, since requests may arrive in BATCH messages.
+ *
+ * Usage: java StubPokerServer [port] [latencyMillis] [JAVA|BINARY] [snapshotInterval]
+ */
+public class StubPokerServer implements AutoCloseable {
+    static final int MIN_BET = 5;
+    static final int MAX_BET = 25;
+
+    private final ServerSocket serverSocket;
+    private final WireFormat wireFormat;
+    private final long latencyMillis;
+    private final Random seeds;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Table> sessions = new ConcurrentHashMap<>(); // Tables by resume token
+    private final AtomicInteger accepted = new AtomicInteger();
+    private volatile boolean running = true;
+    private volatile int snapshotInterval; // 0 sends every response in full
+
+    /**
+     * Create a server bound to a local port; call start to accept clients.
+     * @param port Port to listen on, or 0 for any free port.
+     * @param wireFormat Encoding spoken to clients.
+     * @param latencyMillis Delay added before every response.
+     * @param seed Seed for shuffling, so test runs can be repeated.
+     */
+    public StubPokerServer(int port, WireFormat wireFormat, long latencyMillis, long seed) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.wireFormat = wireFormat;
+        this.latencyMillis = latencyMillis;
+        this.seeds = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5555;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        WireFormat format = args.length > 2 ? WireFormat.valueOf(args[2].toUpperCase()) : WireFormat.JAVA;
+        StubPokerServer server = new StubPokerServer(port, format, latency, System.nanoTime());
+        if (args.length > 3) {
+            server.setDeltaUpdates(Integer.parseInt(args[3]));
+        }
+        System.out.println("Stub poker server listening on port " + server.getPort() + " (" + format + ", " + latency + " ms latency)");
+        server.start().join();
+    }
+
+    /**
+     * Start accepting clients on a background thread.
+     * @return The accept thread.
+     */
+    public Thread start() {
+        Thread acceptor = new Thread(this::acceptLoop, "stub-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return acceptor;
+    }
+
+    /**
+     * Send responses to clients that connect from now on as deltas.
+     * @param snapshotInterval Full snapshot every this many responses, or 0 to turn deltas off.
+     */
+    public void setDeltaUpdates(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * @return The port the server is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Number of client connections accepted so far.
+     */
+    public int getAcceptedCount() {
+        return accepted.get();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                accepted.incrementAndGet();
+                long seed;
+                synchronized (seeds) {
+                    seed = seeds.nextLong();
+                }
+                Thread handler = new Thread(() -> serve(socket, new Random(seed)), "stub-server-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Stub server accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // One client connection: read a request, apply it to the table, send the response
+    private void serve(Socket socket, Random random) {
+        try (PokerStream stream = wireFormat.open(socket.getInputStream(), socket.getOutputStream())) {
+            Table table = new Table(random); // Replaced by the player's old table if they resume
+            DeltaEncoder deltas = snapshotInterval > 0 ? new DeltaEncoder(snapshotInterval) : null;
+            while (running) {
+                PokerInfo request = stream.read();
+                if (request.getAction() == PokerInfo.Action.EXIT) {
+                    sessions.values().remove(table); // Leaving for good; the table cannot be resumed
+                    break;
+                }
+                List<PokerInfo> steps = request.getAction() == PokerInfo.Action.BATCH && request.getBatch() != null
+                        ? request.getBatch() : Collections.singletonList(request);
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis); // Once per message, so a batch costs a single round trip
+                }
+                boolean skipping = false;
+                for (PokerInfo step : steps) {
+                    PokerInfo response;
+                    if (step.getAction() == PokerInfo.Action.CONNECT) {
+                        Table previous = step.getResumeToken() != null ? sessions.get(step.getResumeToken()) : null;
+                        String token;
+                        if (previous != null) {
+                            table = previous;
+                            token = step.getResumeToken();
+                            synchronized (table) {
+                                response = table.resume();
+                            }
+                        } else {
+                            token = UUID.randomUUID().toString();
+                            sessions.put(token, table);
+                            synchronized (table) {
+                                response = table.handle(step);
+                            }
+                        }
+                        response.setResumeToken(token);
+                        response.setCapabilities(PokerInfo.CAP_BATCH);
+                    } else if (skipping) {
+                        synchronized (table) {
+                            response = table.skipped();
+                        }
+                    } else {
+                        // Locked because a dropped connection's thread may still be finishing with this table
+                        synchronized (table) {
+                            response = table.handle(step);
+                            skipping = table.wasRejected(); // Later steps depend on this one, e.g. no deal without a bet
+                        }
+                    }
+                    response.setCorrelationId(step.getCorrelationId());
+                    if (deltas != null) {
+                        response = deltas.encode(response, step.getAction() == PokerInfo.Action.RESYNC);
+                    }
+                    stream.write(response);
+                }
+                stream.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            // Client disconnected
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Stub server client error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Drop every client connection while keeping their tables, as a network failure would.
+     * Clients may reconnect and resume.
+     */
+    public void disconnectClients() throws IOException {
+        for (Socket socket : clients) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Stop accepting and disconnect every client.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Socket socket : clients) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Game state for one connected player.
+     */
+    static final class Table {
+        private enum Stage { BETTING, READY_TO_DEAL, DEALT }
+
+        private final Random random;
+        private final List<Card> deck = new ArrayList<>(52);
+        private final Player player = new Player(); // Tracks bets and the balance in totalWinnings
+        private final ArrayList<Card> dealerHand = new ArrayList<>();
+        private Stage stage = Stage.BETTING;
+        private boolean rejected; // The last request was refused and left the table unchanged
+
+        Table(Random random) {
+            this.random = random;
+            for (int ordinal = 0; ordinal < Card.COUNT; ordinal++) {
+                deck.add(Card.ofOrdinal(ordinal));
+            }
+        }
+
+        /**
+         * Apply one client request.
+         * @param request The request from the client.
+         * @return The response to send back.
+         */
+        PokerInfo handle(PokerInfo request) {
+            rejected = false;
+            PokerInfo.Action action = request.getAction();
+            if (action == null) {
+                return reject("Unknown action.");
+            }
+            switch (action) {
+                case CONNECT:
+                    return update(GamePhase.BETTING, "Welcome! Place your bets.");
+                case PLACE_BET:
+                    return placeBet(request.getAnteBetRequest(), request.getPairPlusBetRequest());
+                case DEAL:
+                    return deal();
+                case PLAY:
+                case FOLD:
+                    return settle(action == PokerInfo.Action.PLAY);
+                case NEW_GAME:
+                    resetRound();
+                    return update(GamePhase.NEW_GAME, "New game started. Place your bets.");
+                case FRESH_START:
+                    resetRound();
+                    player.setTotalWinnings(100);
+                    return update(GamePhase.FRESH_START, "Fresh start. Place your bets.");
+                case RESYNC:
+                    return update(currentPhase(), null); // State only; the connection sends it in full
+                default:
+                    return reject("Action " + action + " is not supported.");
+            }
+        }
+
+        private PokerInfo placeBet(int ante, int pairPlus) {
+            if (stage != Stage.BETTING) {
+                return reject("Bets are already in. Finish this hand first.");
+            }
+            if (ante < MIN_BET || ante > MAX_BET || (pairPlus != 0 && (pairPlus < MIN_BET || pairPlus > MAX_BET))) {
+                return reject("Bets must be between $" + MIN_BET + " and $" + MAX_BET + ". Place your bets.");
+            }
+            player.setAnteBet(ante);
+            player.setPairPlusBet(pairPlus);
+            stage = Stage.READY_TO_DEAL;
+            return update(GamePhase.BET_PLACED, "Bet placed. Click Deal to get your cards.");
+        }
+
+        private PokerInfo deal() {
+            if (stage != Stage.READY_TO_DEAL) {
+                return reject("Place your bets before dealing.");
+            }
+            Collections.shuffle(deck, random);
+            player.getHand().clear();
+            dealerHand.clear();
+            for (int i = 0; i < 3; i++) {
+                player.getHand().add(deck.get(i));
+                dealerHand.add(deck.get(i + 3));
+            }
+            stage = Stage.DEALT;
+            return update(GamePhase.CARDS_DEALT, "Cards dealt. Play or fold?");
+        }
+
+        private PokerInfo settle(boolean play) {
+            if (stage != Stage.DEALT) {
+                return reject("No hand to " + (play ? "play" : "fold") + " yet.");
+            }
+            int ante = player.getAnteBet();
+            int pairPlus = player.getPairPlusBet();
+            int playerScore = HandEvaluator.evaluate(player.getHand());
+            int dealerScore = HandEvaluator.evaluate(dealerHand);
+            int winnings;
+            String message;
+            if (!play) {
+                winnings = Paytable.foldWinnings(ante, pairPlus); // Folding forfeits the ante and the pair plus bet
+                message = "You folded. You lose $" + (ante + pairPlus) + ".";
+            } else {
+                player.setPlayBet(ante);
+                winnings = Paytable.playWinnings(playerScore, dealerScore, ante, pairPlus);
+                if (!HandEvaluator.dealerQualifies(dealerScore)) {
+                    message = "Dealer does not qualify. Ante wins, play bet is returned.";
+                } else if (playerScore > dealerScore) {
+                    message = "You win with " + HandEvaluator.describe(playerScore) + "!";
+                } else if (playerScore < dealerScore) {
+                    message = "Dealer wins with " + HandEvaluator.describe(dealerScore) + ".";
+                } else {
+                    message = "Push. Ante and play bets are returned.";
+                }
+            }
+            player.setTotalWinnings(player.getTotalWinnings() + winnings);
+            PokerInfo response = update(GamePhase.RESULTS, message);
+            response.setAction(PokerInfo.Action.RESULTS);
+            response.setDealerHand(new ArrayList<>(dealerHand));
+            response.setDealerCardsRevealed(true);
+            response.setRoundWinnings(winnings);
+            stage = Stage.BETTING;
+            return response;
+        }
+
+        private void resetRound() {
+            player.setAnteBet(0);
+            player.setPlayBet(0);
+            player.resetPairBets();
+            player.getHand().clear();
+            dealerHand.clear();
+            stage = Stage.BETTING;
+        }
+
+        /**
+         * @return true if the last handled request was refused.
+         */
+        boolean wasRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return The response to a player reconnecting to this table, with its full state.
+         */
+        PokerInfo resume() {
+            rejected = false;
+            return update(currentPhase(), "Welcome back. Your game has been restored.");
+        }
+
+        /**
+         * @return The response for a batched request skipped after an earlier one was refused.
+         */
+        PokerInfo skipped() {
+            return update(currentPhase(), "Skipped because an earlier action in the batch was refused.");
+        }
+
+        // Refuse a request without changing the table
+        private PokerInfo reject(String message) {
+            rejected = true;
+            return update(currentPhase(), message);
+        }
+
+        // Phase to report when a request does not move the round forward
+        private GamePhase currentPhase() {
+            switch (stage) {
+                case READY_TO_DEAL: return GamePhase.BET_PLACED;
+                case DEALT: return GamePhase.CARDS_DEALT;
+                default: return GamePhase.BETTING;
+            }
+        }
+
+        // Build a response carrying the full table state
+        private PokerInfo update(GamePhase phase, String message) {
+            PokerInfo info = new PokerInfo();
+            info.setAction(PokerInfo.Action.UPDATE);
+            info.setPhase(phase);
+            info.setMessage(message);
+            info.setPlayerHand(new ArrayList<>(player.getHand()));
+            info.setPlayerBalance(player.getTotalWinnings());
+            info.setPlayerAnte(player.getAnteBet());
+            info.setPlayerPairPlus(player.getPairPlusBet());
+            info.setPlayerPlay(player.getPlayBet());
+            return info;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+// UpdatePipeline.java
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hands server updates from the network thread to the UI thread in batches.
+ * Updates queue up until the UI thread runs one drain task, which handles everything
+ * that arrived since the last one. State updates replace one another, so only the latest
+ * is rendered, while their log lines are kept in order. Events (results, round resets)
+ * are never merged: pending state is rendered first, then the event, in arrival order.
+ */
+public class UpdatePipeline {
+    /**
+     * Receives the batched work on the UI thread.
+     */
+    public interface Sink {
+        /**
+         * @return true if the update must be handled on its own and in order.
+         */
+        boolean isEvent(PokerInfo info);
+
+        void handleEvent(PokerInfo info);
+
+        /**
+         * @param text One or more newline-terminated log lines.
+         */
+        void appendLog(String text);
+
+        /**
+         * Show the state carried by the latest non-event update (labels, cards, controls).
+         */
+        void render(PokerInfo info);
+    }
+
+    private final Sink sink;
+    private final Consumer<Runnable> uiExecutor;
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>(); // PokerInfo updates and String log lines
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final StringBuilder log = new StringBuilder(); // Only touched on the UI thread
+
+    private final AtomicLong pulses = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+
+    /**
+     * @param sink Receives the batched work.
+     * @param uiExecutor Runs a task on the UI thread, e.g. Platform::runLater.
+     */
+    public UpdatePipeline(Sink sink, Consumer<Runnable> uiExecutor) {
+        this.sink = sink;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * Queue a server update. Safe to call from any thread.
+     * @param info The update.
+     */
+    public void submit(PokerInfo info) {
+        enqueue(info);
+    }
+
+    /**
+     * Queue a log line that is not tied to a server update.
+     * @param line The line to log, without a trailing newline.
+     */
+    public void submitLog(String line) {
+        enqueue(line);
+    }
+
+    private void enqueue(Object item) {
+        pending.add(item);
+        // Only the first item after a drain schedules a task; the rest ride along
+        if (scheduled.compareAndSet(false, true)) {
+            uiExecutor.accept(this::drain);
+        }
+    }
+
+    /**
+     * Process everything queued so far. Runs on the UI thread.
+     */
+    void drain() {
+        // Clear the flag before polling so anything submitted mid-drain schedules another pulse
+        scheduled.set(false);
+        pulses.incrementAndGet();
+        PokerInfo latest = null;
+        Object item;
+        while ((item = pending.poll()) != null) {
+            if (item instanceof String) {
+                log.append((String) item).append('\n');
+                continue;
+            }
+            PokerInfo info = (PokerInfo) item;
+            updates.incrementAndGet();
+            if (sink.isEvent(info)) {
+                flush(latest);
+                latest = null;
+                sink.handleEvent(info);
+            } else {
+                if (info.getMessage() != null) {
+                    log.append(info.getMessage()).append('\n');
+                }
+                latest = info; // Supersedes any earlier state in this batch
+            }
+        }
+        flush(latest);
+    }
+
+    private void flush(PokerInfo latest) {
+        if (log.length() > 0) {
+            sink.appendLog(log.toString());
+            log.setLength(0);
+        }
+        if (latest != null) {
+            renders.incrementAndGet();
+            sink.render(latest);
+        }
+    }
+
+    /**
+     * @return Number of drain tasks run on the UI thread.
+     */
+    public long getPulseCount() {
+        return pulses.get();
+    }
+
+    /**
+     * @return Number of server updates processed.
+     */
+    public long getUpdateCount() {
+        return updates.get();
+    }
+
+    /**
+     * @return Number of state renders; updates minus renders is the work saved by merging.
+     */
+    public long getRenderCount() {
+        return renders.get();
+    }
+}
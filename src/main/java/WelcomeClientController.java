@@ -5,7 +5,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.ProgressIndicator;
 import javafx.stage.Stage;
 import java.io.IOException;
-import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 
 public class WelcomeClientController {
@@ -24,6 +24,14 @@ public class WelcomeClientController {
         this.mainApp = main;
     }
 
+    /**
+     * Clear what the last connection attempt left on the screen, since the screen is reused.
+     */
+    public void reset() {
+        errorLabel.setText("");
+        loadingIndicator.setVisible(false);
+    }
+
     /**
      * Handle the CONNECT button action.
      * Attempts to connect to the server with provided IP and port.
@@ -57,19 +65,25 @@ public class WelcomeClientController {
             return;
         }
 
-        // Attempt to establish a connection
+        // Attempt to establish a connection; it is kept open and handed to the game screen
         new Thread(() -> {
-            try (Socket socket = new Socket(ip, port)) {
+            try {
+                ServerConnection connection = ServerConnection.open(ip, port);
                 // Connection successful; proceed to switch screens on the JavaFX Application Thread
                 javafx.application.Platform.runLater(() -> {
                     loadingIndicator.setVisible(false); // Hide loading indicator
                     try {
-                        mainApp.showGameScreen(ip, port);
+                        mainApp.showGameScreen(connection);
                     } catch (Exception e) {
                         showError("Error loading game screen.");
                         e.printStackTrace();
                     }
                 });
+            } catch (SocketTimeoutException e) {
+                javafx.application.Platform.runLater(() -> {
+                    loadingIndicator.setVisible(false); // Hide loading indicator
+                    showError("Server did not answer within " + ServerConnection.connectTimeoutMillis() + " ms.");
+                });
             } catch (UnknownHostException e) {
                 javafx.application.Platform.runLater(() -> {
                     loadingIndicator.setVisible(false); // Hide loading indicator
@@ -0,0 +1,39 @@
+// WireFormat.java
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The encodings a client can use to talk to the server.
+ * The format is chosen with the poker.wire system property (JAVA or BINARY); Java
+ * serialization stays the default because that is what the server speaks out of the box.
+ */
+public enum WireFormat {
+    JAVA {
+        @Override
+        public PokerStream open(InputStream in, OutputStream out) throws IOException {
+            return new ObjectPokerStream(in, out);
+        }
+    },
+    BINARY {
+        @Override
+        public PokerStream open(InputStream in, OutputStream out) {
+            return new BinaryPokerStream(in, out);
+        }
+    };
+
+    /**
+     * Wrap a connection's raw streams.
+     * @param in Input stream from the peer.
+     * @param out Output stream to the peer.
+     * @return A PokerStream speaking this format.
+     */
+    public abstract PokerStream open(InputStream in, OutputStream out) throws IOException;
+
+    /**
+     * @return The format selected by the poker.wire system property, JAVA if unset.
+     */
+    public static WireFormat fromSystemProperty() {
+        return valueOf(System.getProperty("poker.wire", JAVA.name()).trim().toUpperCase());
+    }
+}
@@ -3,7 +3,46 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javafx.collections.ListChangeListener;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 class MyTest {
 
@@ -58,6 +97,1405 @@ class MyTest {
 		assertEquals(100, player.getTotalWinnings(), "Total winnings should be reset to initial value");
 	}
 
+	@Test
+	@DisplayName("Test card image atlas slots map to existing card images")
+	void testCardImageSlots() {
+		assertEquals(0, CardImageCache.slotOf(new Card('C', 2)), "Two of Clubs should be the first slot");
+		assertEquals(51, CardImageCache.slotOf(new Card('S', 14)), "Ace of Spades should be the last face slot");
+		assertEquals("/cards/12H.png", CardImageCache.resourcePath(CardImageCache.slotOf(new Card('H', 12))));
+		for (int slot = 0; slot < CardImageCache.SLOT_COUNT; slot++) {
+			assertNotNull(getClass().getResource(CardImageCache.resourcePath(slot)), "Missing image for slot " + slot);
+		}
+		assertThrows(IllegalArgumentException.class, () -> CardImageCache.slotOf(new Card('X', 5)));
+	}
+
+	@Test
+	@DisplayName("Test binary codec round trip and frame size")
+	void testBinaryCodecRoundTrip() throws Exception {
+		PokerInfo info = new PokerInfo();
+		info.setAction(PokerInfo.Action.UPDATE);
+		info.setMessage("Cards dealt. Play or fold?");
+		info.getPlayerHand().add(new Card('H', 12));
+		info.getPlayerHand().add(new Card('S', 14));
+		info.getPlayerHand().add(new Card('C', 2));
+		info.getDealerHand().add(new Card('D', 9));
+		info.setPlayerBalance(-35);
+		info.setPlayerAnte(10);
+		info.setPlayerPairPlus(5);
+		info.setDealerCardsRevealed(true);
+		info.setRoundWinnings(300);
+
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		PokerInfoCodec.writeFrame(info, buffer);
+		int binarySize = buffer.position();
+		buffer.flip();
+		PokerInfo copy = PokerInfoCodec.readFrame(buffer);
+		assertFalse(buffer.hasRemaining(), "Whole frame should be consumed");
+
+		assertEquals(info.getAction(), copy.getAction());
+		assertEquals(info.getMessage(), copy.getMessage());
+		assertEquals(3, copy.getPlayerHand().size());
+		assertEquals('S', copy.getPlayerHand().get(1).getSuit());
+		assertEquals(14, copy.getPlayerHand().get(1).getValue());
+		assertEquals(9, copy.getDealerHand().get(0).getValue());
+		assertEquals(-35, copy.getPlayerBalance());
+		assertEquals(10, copy.getPlayerAnte());
+		assertEquals(5, copy.getPlayerPairPlus());
+		assertEquals(0, copy.getPlayerPlay());
+		assertTrue(copy.isDealerCardsRevealed());
+		assertEquals(300, copy.getRoundWinnings());
+
+		// A partial frame must not be consumed
+		buffer.position(0).limit(binarySize - 1);
+		assertNull(PokerInfoCodec.readFrame(buffer), "Incomplete frame should return null");
+		assertEquals(0, buffer.position(), "Incomplete frame should leave the position unchanged");
+
+		ByteArrayOutputStream javaBytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(javaBytes)) {
+			oos.writeObject(info);
+		}
+		assertTrue(binarySize * 5 < javaBytes.size(), "Binary frame (" + binarySize + " bytes) should be far smaller than Java serialization (" + javaBytes.size() + " bytes)");
+	}
+
+	@Test
+	@DisplayName("Test binary codec frames with multi-byte length prefixes")
+	void testBinaryCodecLongFrame() throws Exception {
+		PokerInfo info = new PokerInfo();
+		info.setAction(PokerInfo.Action.RESULTS);
+		info.setMessage("x".repeat(1000));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PokerStream out = WireFormat.BINARY.open(new ByteArrayInputStream(new byte[0]), bytes);
+		out.write(info);
+		out.write(new PokerInfo());
+		out.flush();
+
+		PokerStream in = WireFormat.BINARY.open(new ByteArrayInputStream(bytes.toByteArray()), new ByteArrayOutputStream());
+		PokerInfo first = in.read();
+		assertEquals(PokerInfo.Action.RESULTS, first.getAction());
+		assertEquals(1000, first.getMessage().length());
+		PokerInfo second = in.read();
+		assertNull(second.getAction(), "Empty message should decode with defaults");
+		assertNull(second.getMessage());
+	}
+
+	@Test
+	@DisplayName("Soak test: heap stays flat over 1M object-stream round trips")
+	void testObjectStreamResetSoak() throws Exception {
+		MemoryPipe toServer = new MemoryPipe();
+		MemoryPipe toClient = new MemoryPipe();
+		// Both constructors wait for the peer's stream header, so open the server side on another thread
+		CompletableFuture<ObjectPokerStream> serverSide = CompletableFuture.supplyAsync(() -> {
+			try {
+				return new ObjectPokerStream(toServer.in, toClient.out, StreamResetPolicy.DEFAULT);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		ObjectPokerStream client = new ObjectPokerStream(toClient.in, toServer.out, StreamResetPolicy.DEFAULT);
+		ObjectPokerStream server = serverSide.get();
+
+		Runtime runtime = Runtime.getRuntime();
+		long baseline = 0;
+		int roundTrips = 1_000_000;
+		for (int i = 0; i < roundTrips; i++) {
+			PokerInfo request = new PokerInfo();
+			request.setAction(PokerInfo.Action.PLACE_BET);
+			request.setAnteBetRequest(i % 25 + 5);
+			client.write(request);
+			client.flush();
+
+			PokerInfo received = server.read();
+			PokerInfo response = new PokerInfo();
+			response.setAction(PokerInfo.Action.UPDATE);
+			response.setMessage("Bet placed");
+			response.setPlayerAnte(received.getAnteBetRequest());
+			response.getPlayerHand().add(new Card('H', i % 13 + 2));
+			response.getPlayerHand().add(new Card('S', 14));
+			response.getPlayerHand().add(new Card('C', 2));
+			server.write(response);
+			server.flush();
+
+			assertEquals(received.getAnteBetRequest(), client.read().getPlayerAnte());
+			if (i == 10_000) {
+				baseline = usedHeapAfterGc(runtime);
+			}
+		}
+		long growth = usedHeapAfterGc(runtime) - baseline;
+		assertTrue(growth < 16L * 1024 * 1024, "Heap grew by " + growth / 1024 + " KB over " + roundTrips + " round trips");
+		assertTrue(client.getResetCount() > 0 && server.getResetCount() > 0, "Both sides should have reset their streams");
+	}
+
+	private static long usedHeapAfterGc(Runtime runtime) throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Unbounded in-memory byte pipe; reads block only while the pipe is empty.
+	 */
+	static class MemoryPipe {
+		private byte[] data = new byte[8192];
+		private int head, size;
+
+		final OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				synchronized (MemoryPipe.this) {
+					if (size + len > data.length) {
+						byte[] grown = new byte[Math.max(data.length * 2, size + len)];
+						for (int i = 0; i < size; i++) {
+							grown[i] = data[(head + i) % data.length];
+						}
+						data = grown;
+						head = 0;
+					}
+					for (int i = 0; i < len; i++) {
+						data[(head + size + i) % data.length] = b[off + i];
+					}
+					size += len;
+					MemoryPipe.this.notifyAll();
+				}
+			}
+		};
+
+		final InputStream in = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				byte[] one = new byte[1];
+				return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				synchronized (MemoryPipe.this) {
+					while (size == 0) {
+						try {
+							MemoryPipe.this.wait();
+						} catch (InterruptedException e) {
+							throw new InterruptedIOException();
+						}
+					}
+					int n = Math.min(len, size);
+					for (int i = 0; i < n; i++) {
+						b[off + i] = data[(head + i) % data.length];
+					}
+					head = (head + n) % data.length;
+					size -= n;
+					return n;
+				}
+			}
+
+			@Override
+			public int available() {
+				synchronized (MemoryPipe.this) {
+					return size;
+				}
+			}
+		};
+	}
+
+	@Test
+	@DisplayName("Test NIO transport drives many sessions from one I/O thread")
+	void testNioTransportSessions() throws Exception {
+		int sessions = 50;
+		int messagesPerSession = 20;
+		try (ServerSocket server = new ServerSocket(0);
+			 NioTransport transport = new NioTransport("test-nio")) {
+			// Binary echo server: one thread per accepted connection
+			Thread acceptor = new Thread(() -> {
+				try {
+					while (true) {
+						Socket socket = server.accept();
+						new Thread(() -> {
+							try (PokerStream stream = WireFormat.BINARY.open(socket.getInputStream(), socket.getOutputStream())) {
+								while (true) {
+									PokerInfo request = stream.read();
+									PokerInfo reply = new PokerInfo();
+									reply.setAction(PokerInfo.Action.UPDATE);
+									reply.setMessage("echo " + request.getAnteBetRequest() + " " + "x".repeat(request.getAnteBetRequest() * 500));
+									reply.setPlayerAnte(request.getAnteBetRequest());
+									stream.write(reply);
+									stream.flush();
+								}
+							} catch (Exception ignored) {
+								// Client went away
+							}
+						}).start();
+					}
+				} catch (IOException ignored) {
+					// Server closed
+				}
+			});
+			acceptor.setDaemon(true);
+			acceptor.start();
+
+			CountDownLatch done = new CountDownLatch(sessions * messagesPerSession);
+			AtomicInteger mismatches = new AtomicInteger();
+			for (int i = 0; i < sessions; i++) {
+				int[] expected = {0};
+				NioTransport.Session session = transport.connect(new InetSocketAddress("127.0.0.1", server.getLocalPort()), (s, info) -> {
+					// Replies arrive in order per session, including ones larger than the read buffer
+					if (info.getPlayerAnte() != expected[0]++ || !info.getMessage().startsWith("echo ")) {
+						mismatches.incrementAndGet();
+					}
+					done.countDown();
+				});
+				for (int m = 0; m < messagesPerSession; m++) {
+					PokerInfo request = new PokerInfo();
+					request.setAction(PokerInfo.Action.PLACE_BET);
+					request.setAnteBetRequest(m);
+					session.send(request);
+				}
+			}
+			assertTrue(done.await(20, TimeUnit.SECONDS), "All replies should arrive");
+			assertEquals(0, mismatches.get(), "Replies should arrive intact and in order");
+		}
+	}
+
+	@Test
+	@DisplayName("Test latency histogram percentiles stay within bucket precision")
+	void testLatencyHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long v = 1; v <= 100_000; v++) {
+			histogram.record(v * 1000); // 1 us .. 100 ms
+		}
+		assertEquals(100_000, histogram.getCount());
+		assertEquals(100_000_000L, histogram.getMax());
+		assertEquals(50_000_000L, histogram.getPercentile(50), 50_000_000L * 0.04);
+		assertEquals(99_000_000L, histogram.getPercentile(99), 99_000_000L * 0.04);
+		assertEquals(99_900_000L, histogram.getPercentile(99.9), 99_900_000L * 0.04);
+		for (int bucket = 1; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+			assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBound(bucket - 1) + 1), "Buckets should be contiguous");
+		}
+		histogram.reset();
+		assertEquals(0, histogram.getPercentile(99));
+	}
+
+	@Test
+	@DisplayName("Test three card hand evaluator ordering")
+	void testHandEvaluator() {
+		int straightFlush = HandEvaluator.evaluate(new Card('H', 2), new Card('H', 3), new Card('H', 4));
+		int trips = HandEvaluator.evaluate(new Card('H', 14), new Card('S', 14), new Card('C', 14));
+		int straight = HandEvaluator.evaluate(new Card('H', 12), new Card('S', 13), new Card('C', 14));
+		int lowStraight = HandEvaluator.evaluate(new Card('H', 14), new Card('S', 2), new Card('C', 3));
+		int flush = HandEvaluator.evaluate(new Card('D', 2), new Card('D', 7), new Card('D', 9));
+		int pair = HandEvaluator.evaluate(new Card('D', 5), new Card('S', 5), new Card('C', 9));
+		int queenHigh = HandEvaluator.evaluate(new Card('D', 12), new Card('S', 3), new Card('C', 2));
+		int jackHigh = HandEvaluator.evaluate(new Card('D', 11), new Card('S', 10), new Card('C', 8));
+
+		assertTrue(straightFlush > trips && trips > straight && straight > lowStraight && lowStraight > flush);
+		assertTrue(flush > pair && pair > queenHigh && queenHigh > jackHigh);
+		assertEquals(HandEvaluator.STRAIGHT, HandEvaluator.category(lowStraight));
+		assertEquals("Pair", HandEvaluator.describe(pair));
+		assertTrue(HandEvaluator.dealerQualifies(queenHigh), "Queen high should qualify");
+		assertFalse(HandEvaluator.dealerQualifies(jackHigh), "Jack high should not qualify");
+	}
+
+	@Test
+	@DisplayName("Test stub server protocol flow and messages")
+	void testStubServerFlow() throws Exception {
+		try (StubPokerServer server = new StubPokerServer(0, WireFormat.JAVA, 0, 42)) {
+			server.start();
+			try (Socket socket = new Socket("127.0.0.1", server.getPort());
+				 PokerStream stream = WireFormat.JAVA.open(socket.getInputStream(), socket.getOutputStream())) {
+				assertTrue(request(stream, PokerInfo.Action.CONNECT, 0, 0).getMessage().toLowerCase().contains("place your bets"));
+				PokerInfo bet = request(stream, PokerInfo.Action.PLACE_BET, 10, 5);
+				assertTrue(bet.getMessage().toLowerCase().contains("bet placed"));
+				assertEquals(10, bet.getPlayerAnte());
+				PokerInfo dealt = request(stream, PokerInfo.Action.DEAL, 0, 0);
+				assertTrue(dealt.getMessage().toLowerCase().contains("cards dealt"));
+				assertEquals(3, dealt.getPlayerHand().size(), "Player should see three cards");
+				assertTrue(dealt.getDealerHand().isEmpty(), "Dealer cards stay hidden until results");
+				PokerInfo results = request(stream, PokerInfo.Action.PLAY, 0, 0);
+				assertEquals(PokerInfo.Action.RESULTS, results.getAction());
+				assertTrue(results.isDealerCardsRevealed());
+				assertEquals(3, results.getDealerHand().size());
+				assertEquals(100 + results.getRoundWinnings(), results.getPlayerBalance());
+				assertTrue(request(stream, PokerInfo.Action.NEW_GAME, 0, 0).getMessage().toLowerCase().contains("new game started"));
+				assertTrue(request(stream, PokerInfo.Action.FRESH_START, 0, 0).getMessage().toLowerCase().contains("fresh start"));
+			}
+		}
+	}
+
+	private static PokerInfo request(PokerStream stream, PokerInfo.Action action, int ante, int pairPlus) throws Exception {
+		PokerInfo req = new PokerInfo();
+		req.setAction(action);
+		req.setAnteBetRequest(ante);
+		req.setPairPlusBetRequest(pairPlus);
+		stream.write(req);
+		stream.flush();
+		return stream.read();
+	}
+
+	@Test
+	@DisplayName("Test load generator end to end against the stub server")
+	void testLoadGeneratorAgainstStubServer() throws Exception {
+		for (WireFormat format : WireFormat.values()) {
+			try (StubPokerServer server = new StubPokerServer(0, format, 0, 7)) {
+				server.start();
+				Map<String, String> options = new HashMap<>();
+				options.put("port", String.valueOf(server.getPort()));
+				options.put("sessions", "20");
+				options.put("hands", "10");
+				options.put("pair-plus", "5");
+				options.put("wire", format.name());
+				LoadGenerator generator = new LoadGenerator(options);
+				generator.run();
+				assertEquals(0, generator.getErrors(), format + " run should have no errors");
+				assertEquals(200, generator.getHandsCompleted(), format + " run should complete every hand");
+				assertEquals(200, generator.getLatency(PokerInfo.Action.DEAL).getCount());
+				assertEquals(20, generator.getLatency(PokerInfo.Action.CONNECT).getCount());
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test update pipeline merges state updates and keeps events in order")
+	void testUpdatePipelineCoalescing() {
+		ArrayList<Runnable> uiTasks = new ArrayList<>();
+		ArrayList<String> calls = new ArrayList<>();
+		UpdatePipeline pipeline = new UpdatePipeline(new UpdatePipeline.Sink() {
+			@Override
+			public boolean isEvent(PokerInfo info) {
+				return info.getAction() == PokerInfo.Action.RESULTS;
+			}
+
+			@Override
+			public void handleEvent(PokerInfo info) {
+				calls.add("event:" + info.getMessage());
+			}
+
+			@Override
+			public void appendLog(String text) {
+				calls.add("log:" + text);
+			}
+
+			@Override
+			public void render(PokerInfo info) {
+				calls.add("render:" + info.getPlayerBalance());
+			}
+		}, uiTasks::add);
+
+		for (int balance = 1; balance <= 3; balance++) {
+			pipeline.submit(update(PokerInfo.Action.UPDATE, "u" + balance, balance));
+		}
+		pipeline.submitLog("local");
+		pipeline.submit(update(PokerInfo.Action.RESULTS, "done", 4));
+		pipeline.submit(update(PokerInfo.Action.UPDATE, "u5", 5));
+		pipeline.submit(update(PokerInfo.Action.UPDATE, "u6", 6));
+
+		assertEquals(1, uiTasks.size(), "A burst should schedule a single UI task");
+		uiTasks.remove(0).run();
+		assertEquals(List.of("log:u1\nu2\nu3\nlocal\n", "render:3", "event:done", "log:u5\nu6\n", "render:6"), calls);
+		assertEquals(6, pipeline.getUpdateCount());
+		assertEquals(2, pipeline.getRenderCount(), "Superseded state updates should not be rendered");
+
+		pipeline.submit(update(PokerInfo.Action.UPDATE, "u7", 7));
+		assertEquals(1, uiTasks.size(), "Updates after a drain should schedule a new UI task");
+	}
+
+	private static PokerInfo update(PokerInfo.Action action, String message, int balance) {
+		PokerInfo info = new PokerInfo();
+		info.setAction(action);
+		info.setMessage(message);
+		info.setPlayerBalance(balance);
+		return info;
+	}
+
+	@Test
+	@DisplayName("Test game phase dispatch with explicit phase and text fallback")
+	void testGamePhase() throws Exception {
+		assertEquals(GamePhase.UNKNOWN, GamePhase.fromMessage(null), "Null message should not throw");
+		assertEquals(GamePhase.NEW_GAME, GamePhase.fromMessage("NEW GAME STARTED. Place your bets."));
+		assertEquals(GamePhase.FRESH_START, GamePhase.fromMessage("Fresh start. Place your bets."));
+		assertEquals(GamePhase.BETTING, GamePhase.fromMessage("Welcome! Place Your Bets."));
+		assertEquals(GamePhase.BET_PLACED, GamePhase.fromMessage("Bet placed."));
+		assertEquals(GamePhase.CARDS_DEALT, GamePhase.fromMessage("Cards dealt. Play or fold?"));
+		assertEquals(GamePhase.UNKNOWN, GamePhase.fromMessage("Cards"));
+
+		PokerInfo typed = update(PokerInfo.Action.UPDATE, "Something the client does not recognize", 0);
+		typed.setPhase(GamePhase.CARDS_DEALT);
+		assertEquals(GamePhase.CARDS_DEALT, GamePhase.of(typed), "Explicit phase should win over the text");
+		assertEquals(GamePhase.RESULTS, GamePhase.of(update(PokerInfo.Action.RESULTS, null, 0)));
+
+		ByteBuffer buffer = ByteBuffer.allocate(128);
+		PokerInfoCodec.writeFrame(typed, buffer);
+		buffer.flip();
+		assertEquals(GamePhase.CARDS_DEALT, PokerInfoCodec.readFrame(buffer).getPhase(), "Phase should survive the binary codec");
+
+		PhaseStateMachine machine = new PhaseStateMachine();
+		machine.advance(update(PokerInfo.Action.UPDATE, "Welcome! Place your bets.", 0));
+		machine.advance(update(PokerInfo.Action.UPDATE, "Bet placed.", 0));
+		machine.advance(update(PokerInfo.Action.UPDATE, "Cards dealt.", 0));
+		machine.advance(update(PokerInfo.Action.RESULTS, "You win", 0));
+		machine.advance(update(PokerInfo.Action.UPDATE, "New game started.", 0));
+		assertEquals(GamePhase.NEW_GAME, machine.getCurrent());
+		assertEquals(0, machine.getUnexpectedTransitions(), "A normal round should have no unexpected transitions");
+		machine.advance(update(PokerInfo.Action.RESULTS, "You win", 0));
+		assertEquals(1, machine.getUnexpectedTransitions());
+	}
+
+	@Test
+	@DisplayName("Test delta updates rebuild the same state as full updates")
+	void testDeltaStateModel() throws Exception {
+		// Same seed, same requests: one server sends everything, the other sends deltas
+		try (StubPokerServer full = new StubPokerServer(0, WireFormat.BINARY, 0, 42);
+			 StubPokerServer deltas = new StubPokerServer(0, WireFormat.BINARY, 0, 42)) {
+			deltas.setDeltaUpdates(4);
+			full.start();
+			deltas.start();
+			try (Socket a = new Socket("127.0.0.1", full.getPort());
+				 Socket b = new Socket("127.0.0.1", deltas.getPort());
+				 PokerStream fullStream = WireFormat.BINARY.open(a.getInputStream(), a.getOutputStream());
+				 PokerStream deltaStream = WireFormat.BINARY.open(b.getInputStream(), b.getOutputStream())) {
+				GameStateModel model = new GameStateModel();
+				PokerInfo.Action[] round = {PokerInfo.Action.PLACE_BET, PokerInfo.Action.DEAL, PokerInfo.Action.PLAY, PokerInfo.Action.NEW_GAME};
+				ArrayList<PokerInfo.Action> script = new ArrayList<>();
+				script.add(PokerInfo.Action.CONNECT);
+				for (int i = 0; i < 5; i++) {
+					script.addAll(Arrays.asList(round));
+				}
+				for (PokerInfo.Action action : script) {
+					PokerInfo expected = request(fullStream, action, 10, 5);
+					PokerInfo actual = model.apply(request(deltaStream, action, 10, 5));
+					assertNotNull(actual, "Deltas arriving in order should always apply");
+					assertSameState(expected, actual);
+				}
+				assertTrue(model.getDeltaCount() > model.getSnapshotCount(), "Most updates should be deltas");
+			}
+		}
+
+		// A lost delta stops the model until a snapshot arrives
+		DeltaEncoder encoder = new DeltaEncoder(100);
+		GameStateModel model = new GameStateModel();
+		model.apply(encoder.encode(update(PokerInfo.Action.UPDATE, "first", 100), false));
+		encoder.encode(update(PokerInfo.Action.UPDATE, "lost", 90), false);
+		assertNull(model.apply(encoder.encode(update(PokerInfo.Action.UPDATE, "after gap", 80), false)));
+		assertTrue(model.claimResync(), "The first missed delta should ask for a resync");
+		assertFalse(model.claimResync(), "Only one resync per gap");
+		assertNull(model.apply(encoder.encode(update(PokerInfo.Action.UPDATE, "still waiting", 70), false)));
+		assertEquals(70, model.apply(encoder.encode(update(PokerInfo.Action.UPDATE, "snapshot", 70), true)).getPlayerBalance());
+		assertEquals(60, model.apply(encoder.encode(update(PokerInfo.Action.UPDATE, "back", 60), false)).getPlayerBalance());
+		assertEquals(1, model.getGapCount());
+
+		// A message-only change costs only the message on the wire
+		PokerInfo dealt = update(PokerInfo.Action.UPDATE, "Cards dealt.", 100);
+		dealt.getPlayerHand().add(new Card('H', 12));
+		dealt.getPlayerHand().add(new Card('S', 3));
+		dealt.getPlayerHand().add(new Card('D', 9));
+		dealt.setPlayerAnte(10);
+		dealt.setPhase(GamePhase.CARDS_DEALT);
+		PokerInfo again = GameStateModel.diff(dealt, dealt);
+		assertEquals(0, again.getChangedFields());
+		ByteBuffer fullBytes = ByteBuffer.allocate(128);
+		ByteBuffer deltaBytes = ByteBuffer.allocate(128);
+		PokerInfoCodec.writeFrame(dealt, fullBytes);
+		PokerInfoCodec.writeFrame(again, deltaBytes);
+		assertTrue(deltaBytes.position() < fullBytes.position() - 6, "Delta should leave out the unchanged hand and bets");
+
+		// Clearing fields must survive the codec: deltas carry default values explicitly
+		PokerInfo cleared = GameStateModel.diff(dealt, update(PokerInfo.Action.UPDATE, "New game.", 100));
+		deltaBytes.clear();
+		PokerInfoCodec.writeFrame(cleared, deltaBytes);
+		deltaBytes.flip();
+		PokerInfo decoded = PokerInfoCodec.readFrame(deltaBytes);
+		assertTrue(decoded.isDelta());
+		assertEquals(PokerInfo.FIELD_PLAYER_HAND | PokerInfo.FIELD_ANTE | PokerInfo.FIELD_PHASE, decoded.getChangedFields());
+		assertNull(decoded.getPhase());
+	}
+
+	private static void assertSameState(PokerInfo expected, PokerInfo actual) {
+		assertEquals(expected.getAction(), actual.getAction());
+		assertEquals(expected.getMessage(), actual.getMessage());
+		assertEquals(expected.getPhase(), actual.getPhase());
+		assertEquals(expected.getPlayerBalance(), actual.getPlayerBalance());
+		assertEquals(expected.getPlayerAnte(), actual.getPlayerAnte());
+		assertEquals(expected.getPlayerPairPlus(), actual.getPlayerPairPlus());
+		assertEquals(expected.getPlayerPlay(), actual.getPlayerPlay());
+		assertEquals(expected.getRoundWinnings(), actual.getRoundWinnings());
+		assertEquals(expected.isDealerCardsRevealed(), actual.isDealerCardsRevealed());
+		assertEquals(expected.getPlayerHand().size(), actual.getPlayerHand().size());
+		assertEquals(expected.getDealerHand().size(), actual.getDealerHand().size());
+		for (int i = 0; i < expected.getPlayerHand().size(); i++) {
+			assertEquals(CardImageCache.slotOf(expected.getPlayerHand().get(i)), CardImageCache.slotOf(actual.getPlayerHand().get(i)));
+		}
+	}
+
+	@Test
+	@DisplayName("Test outbound queue batches writes and pushes back on a stalled peer")
+	void testOutboundQueue() throws Exception {
+		CountDownLatch stalled = new CountDownLatch(1);
+		CountDownLatch writing = new CountDownLatch(1);
+		ArrayList<PokerInfo> written = new ArrayList<>();
+		int[] flushes = {0};
+		PokerStream slowPeer = new PokerStream() {
+			@Override
+			public void write(PokerInfo info) throws IOException {
+				writing.countDown();
+				try {
+					stalled.await(); // Like a socket whose peer stopped reading
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+				synchronized (written) {
+					written.add(info);
+				}
+			}
+
+			@Override
+			public void flush() {
+				flushes[0]++;
+			}
+
+			@Override
+			public PokerInfo read() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		OutboundQueue queue = new OutboundQueue(slowPeer, 8, 50, e -> fail(e));
+		assertTrue(queue.send(update(PokerInfo.Action.UPDATE, "m0", 0)));
+		assertTrue(writing.await(5, TimeUnit.SECONDS), "Writer should pick up the first message");
+		long start = System.nanoTime();
+		int accepted = 1;
+		for (int i = 1; i < 20; i++) {
+			if (queue.send(update(PokerInfo.Action.UPDATE, "m" + i, i))) {
+				accepted++;
+			}
+		}
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		// The writer holds one message, the queue eight more; the rest wait 50 ms each and are refused
+		assertEquals(9, accepted, "A stalled peer should only take queue capacity plus the one being written");
+		assertEquals(11, queue.getRejectedCount());
+		assertTrue(elapsedMillis < 2000, "Senders should wait at most the offer timeout, took " + elapsedMillis + " ms");
+		assertEquals(8, queue.getMaxQueueDepth());
+
+		stalled.countDown();
+		queue.close();
+		queue.awaitTermination(5000);
+		assertEquals(9, written.size(), "Close should drain what was already queued");
+		assertEquals("m0", written.get(0).getMessage());
+		assertEquals("m8", written.get(8).getMessage());
+		assertTrue(queue.getFlushCount() < 9, "Queued messages should share flushes");
+		assertEquals(9, queue.getSendLatency().getCount());
+		assertFalse(queue.send(update(PokerInfo.Action.UPDATE, "late", 0)), "A closed queue should refuse sends");
+	}
+
+	@Test
+	@DisplayName("Test outbound queue reports a batch whose flush failed as unsent")
+	void testOutboundQueueFlushFailure() throws Exception {
+		CountDownLatch firstFlush = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch failed = new CountDownLatch(1);
+		int[] flushes = {0};
+		PokerStream deadPeer = new PokerStream() {
+			@Override
+			public void write(PokerInfo info) {
+				// Buffered, like ObjectPokerStream; a dead socket only shows on flush
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (flushes[0]++ == 0) {
+					firstFlush.countDown();
+					try {
+						release.await(); // Hold the writer so the next messages form one batch
+					} catch (InterruptedException e) {
+						throw new InterruptedIOException();
+					}
+					return;
+				}
+				throw new IOException("Connection reset");
+			}
+
+			@Override
+			public PokerInfo read() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		OutboundQueue queue = new OutboundQueue(deadPeer, 8, 50, e -> failed.countDown());
+		assertTrue(queue.send(update(PokerInfo.Action.UPDATE, "m0", 0)));
+		assertTrue(firstFlush.await(5, TimeUnit.SECONDS));
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(queue.send(update(PokerInfo.Action.UPDATE, "m" + i, i)));
+		}
+		release.countDown();
+		assertTrue(failed.await(5, TimeUnit.SECONDS), "The failed flush should be reported");
+		assertFalse(queue.send(update(PokerInfo.Action.UPDATE, "late", 0)), "A failed queue should refuse sends");
+		List<PokerInfo> unsent = queue.abort();
+		assertEquals(3, unsent.size(), "Every message of the batch whose flush failed should come back");
+		assertEquals("m1", unsent.get(0).getMessage());
+		assertEquals("m3", unsent.get(2).getMessage());
+		assertEquals(1, queue.getSentCount());
+	}
+
+	@Test
+	@DisplayName("Test pipelined batches are answered per request by correlation id")
+	void testPipelinedBatch() throws Exception {
+		PokerInfo welcome = update(PokerInfo.Action.UPDATE, "Welcome!", 100);
+		welcome.setResumeToken("token");
+		ByteBuffer frame = ByteBuffer.allocate(128);
+		PokerInfoCodec.writeFrame(welcome, frame);
+		frame.flip();
+		assertEquals(0, PokerInfoCodec.readFrame(frame).getCapabilities(), "A resume token alone says nothing about BATCH");
+		welcome.setCapabilities(PokerInfo.CAP_BATCH);
+		frame.clear();
+		PokerInfoCodec.writeFrame(welcome, frame);
+		frame.flip();
+		assertEquals(PokerInfo.CAP_BATCH, PokerInfoCodec.readFrame(frame).getCapabilities());
+
+		for (WireFormat format : WireFormat.values()) {
+			try (StubPokerServer server = new StubPokerServer(0, format, 20, 3)) {
+				server.start();
+				BlockingQueue<PokerInfo> updates = new LinkedBlockingQueue<>();
+				ClientController controller = new ClientController() {
+					@Override
+					public void handleServerUpdate(PokerInfo info) {
+						updates.add(info);
+					}
+
+					@Override
+					public void showMessage(String msg) {
+						// No FX toolkit in tests
+					}
+				};
+				ClientNetworkThread network = new ClientNetworkThread("127.0.0.1", server.getPort(), controller, format);
+				assertFalse(network.supportsBatch(), "BATCH must not be offered before the server is known");
+				network.setDaemon(true);
+				network.start();
+				PokerInfo connected = updates.poll(10, TimeUnit.SECONDS);
+				assertNotNull(connected, "CONNECT should be answered");
+				assertEquals(PokerInfo.CAP_BATCH, connected.getCapabilities(), format + ": the CONNECT answer should advertise BATCH");
+				assertTrue(network.supportsBatch(), format + ": the stub server understands BATCH");
+
+				List<CompletableFuture<PokerInfo>> answers = network.requestBatch(Arrays.asList(
+						batchStep(PokerInfo.Action.PLACE_BET, 10), batchStep(PokerInfo.Action.DEAL, 0)));
+				PokerInfo bet = answers.get(0).get(10, TimeUnit.SECONDS);
+				PokerInfo dealt = answers.get(1).get(10, TimeUnit.SECONDS);
+				assertEquals(GamePhase.BET_PLACED, bet.getPhase(), format + ": first answer should belong to the bet");
+				assertEquals(GamePhase.CARDS_DEALT, dealt.getPhase(), format + ": second answer should belong to the deal");
+				assertEquals(3, dealt.getPlayerHand().size());
+				network.requestBatch(Collections.singletonList(batchStep(PokerInfo.Action.FOLD, 0))).get(0).get(10, TimeUnit.SECONDS);
+
+				// A refused bet stops the rest of the batch, but every request still gets its own answer
+				answers = network.requestBatch(Arrays.asList(batchStep(PokerInfo.Action.NEW_GAME, 0),
+						batchStep(PokerInfo.Action.PLACE_BET, 1), batchStep(PokerInfo.Action.DEAL, 0)));
+				assertEquals(GamePhase.NEW_GAME, answers.get(0).get(10, TimeUnit.SECONDS).getPhase());
+				assertTrue(answers.get(1).get(10, TimeUnit.SECONDS).getMessage().startsWith("Bets must be"));
+				assertTrue(answers.get(2).get(10, TimeUnit.SECONDS).getMessage().startsWith("Skipped"));
+				assertEquals(0, network.getOutstandingRequests());
+				network.shutdown();
+			}
+		}
+
+		try (StubPokerServer server = new StubPokerServer(0, WireFormat.BINARY, 0, 5)) {
+			server.start();
+			Map<String, String> options = new HashMap<>();
+			options.put("port", String.valueOf(server.getPort()));
+			options.put("sessions", "10");
+			options.put("hands", "10");
+			options.put("wire", "binary");
+			options.put("pipeline", "true");
+			LoadGenerator generator = new LoadGenerator(options);
+			generator.run();
+			assertEquals(0, generator.getErrors());
+			assertEquals(100, generator.getHandsCompleted());
+			assertEquals(0, generator.getLatency(PokerInfo.Action.PLACE_BET).getCount(), "Bets should ride in batches timed under DEAL");
+		}
+	}
+
+	private static String handText(PokerInfo info) {
+		StringBuilder text = new StringBuilder();
+		for (Card card : info.getPlayerHand()) {
+			text.append(card.getValue()).append(card.getSuit()).append(' ');
+		}
+		return text.toString();
+	}
+
+	private static PokerInfo batchStep(PokerInfo.Action action, int ante) {
+		PokerInfo req = new PokerInfo();
+		req.setAction(action);
+		req.setAnteBetRequest(ante);
+		return req;
+	}
+
+	@Test
+	@DisplayName("Test the welcome screen connection is reused by the game session")
+	void testConnectionHandoff() throws Exception {
+		for (boolean nio : new boolean[] {false, true}) {
+			WireFormat format = nio ? WireFormat.BINARY : WireFormat.JAVA;
+			try (StubPokerServer server = new StubPokerServer(0, format, 0, 9)) {
+				server.start();
+				ServerConnection connection = nio
+						? ServerConnection.openNonBlocking("127.0.0.1", server.getPort(), NioTransport.shared(), 2000)
+						: ServerConnection.openBlocking("127.0.0.1", server.getPort(), format, 2000);
+				BlockingQueue<PokerInfo> updates = new LinkedBlockingQueue<>();
+				ClientController controller = new ClientController() {
+					@Override
+					public void handleServerUpdate(PokerInfo info) {
+						updates.add(info);
+					}
+
+					@Override
+					public void showMessage(String msg) {
+						// No FX toolkit in tests
+					}
+				};
+				ClientNetworkThread network = new ClientNetworkThread(connection, controller);
+				network.setDaemon(true);
+				network.start();
+				PokerInfo welcome = updates.poll(10, TimeUnit.SECONDS);
+				assertNotNull(welcome, "CONNECT should be answered on the handed-over connection");
+				assertEquals(GamePhase.BETTING, welcome.getPhase());
+				assertEquals(1, server.getAcceptedCount(), "Probe and game session should share one connection");
+				network.shutdown();
+			}
+		}
+
+		// A port that accepts but never answers must fail within the timeout, not hang
+		try (ServerSocket silent = new ServerSocket(0)) {
+			long start = System.nanoTime();
+			assertThrows(SocketTimeoutException.class,
+					() -> ServerConnection.openBlocking("127.0.0.1", silent.getLocalPort(), WireFormat.JAVA, 200));
+			assertTrue((System.nanoTime() - start) / 1_000_000 < 5000, "Timeout should be honoured");
+		}
+	}
+
+	@Test
+	@DisplayName("Test a dropped connection reconnects with backoff and resumes the hand")
+	void testReconnectResume() throws Exception {
+		ReconnectBackoff backoff = new ReconnectBackoff(100, 1000, 5, new Random(1));
+		for (int attempt = 0; attempt < 5; attempt++) {
+			long delay = backoff.nextDelayMillis();
+			assertTrue(delay >= 0 && delay <= Math.min(1000, 100 << attempt), "Delay " + delay + " out of bounds");
+		}
+		assertEquals(-1, backoff.nextDelayMillis(), "Attempts should run out");
+		backoff.reset();
+		assertEquals(0, backoff.getAttempts());
+
+		System.setProperty("poker.reconnectBaseMs", "200");
+		try {
+			for (boolean nio : new boolean[] {false, true}) {
+				WireFormat format = nio ? WireFormat.BINARY : WireFormat.JAVA;
+				try (StubPokerServer server = new StubPokerServer(0, format, 0, 11)) {
+					server.start();
+					BlockingQueue<PokerInfo> updates = new LinkedBlockingQueue<>();
+					BlockingQueue<String> notices = new LinkedBlockingQueue<>();
+					ClientController controller = new ClientController() {
+						@Override
+						public void handleServerUpdate(PokerInfo info) {
+							updates.add(info);
+						}
+
+						@Override
+						public void showMessage(String msg) {
+							notices.add(msg);
+						}
+					};
+					ClientNetworkThread network = nio
+							? new ClientNetworkThread("127.0.0.1", server.getPort(), controller, NioTransport.shared())
+							: new ClientNetworkThread("127.0.0.1", server.getPort(), controller, format);
+					Path historyDir = Files.createTempDirectory("history");
+					network.setHistory(new HandHistoryRecorder(historyDir, HandHistoryRecorder.DEFAULT_SEGMENT_BYTES, 4096));
+					network.setDaemon(true);
+					network.start();
+					assertNotNull(updates.poll(10, TimeUnit.SECONDS), "CONNECT should be answered");
+					network.sendInfo(batchStep(PokerInfo.Action.PLACE_BET, 10));
+					assertEquals(GamePhase.BET_PLACED, updates.poll(10, TimeUnit.SECONDS).getPhase());
+					network.sendInfo(batchStep(PokerInfo.Action.DEAL, 0));
+					PokerInfo dealt = updates.poll(10, TimeUnit.SECONDS);
+					assertEquals(GamePhase.CARDS_DEALT, dealt.getPhase());
+
+					server.disconnectClients();
+					String notice = notices.poll(10, TimeUnit.SECONDS);
+					assertNotNull(notice, "The player should be told about the reconnect");
+					assertTrue(notice.startsWith("Connection lost. Reconnecting"), notice);
+					network.sendInfo(batchStep(PokerInfo.Action.PLAY, 0)); // Held until the session is back
+
+					PokerInfo resumed = updates.poll(10, TimeUnit.SECONDS);
+					assertNotNull(resumed, (nio ? "NIO" : "Blocking") + " client should reconnect");
+					assertTrue(resumed.getMessage().startsWith("Welcome back"), resumed.getMessage());
+					assertEquals(GamePhase.CARDS_DEALT, resumed.getPhase(), "The hand in progress should be restored");
+					assertEquals(handText(dealt), handText(resumed), "The same cards should come back");
+					PokerInfo results = updates.poll(10, TimeUnit.SECONDS);
+					assertNotNull(results, "PLAY sent while offline should be delivered after the resume");
+					assertEquals(GamePhase.RESULTS, results.getPhase());
+					assertEquals(2, server.getAcceptedCount());
+					network.shutdown();
+
+					// Both connections were recorded, including the PLAY held while offline
+					List<HandHistoryReader.Entry> history = HandHistoryReader.readAll(historyDir);
+					assertEquals(2, history.stream().filter(e -> e.getDirection() == HandHistoryRecorder.Direction.SENT
+							&& e.getInfo().getAction() == PokerInfo.Action.CONNECT).count());
+					assertTrue(history.stream().anyMatch(e -> e.getDirection() == HandHistoryRecorder.Direction.SENT
+							&& e.getInfo().getAction() == PokerInfo.Action.PLAY));
+					assertTrue(history.stream().filter(e -> e.getDirection() == HandHistoryRecorder.Direction.RECEIVED).count() >= 5);
+					try (Stream<Path> files = Files.list(historyDir)) {
+						files.forEach(f -> f.toFile().delete());
+					}
+					Files.deleteIfExists(historyDir);
+				}
+			}
+		} finally {
+			System.clearProperty("poker.reconnectBaseMs");
+		}
+	}
+
+	@Test
+	@DisplayName("Test a server that drops every connection does not cause endless reconnects")
+	void testReconnectGivesUpOnFlappingServer() throws Exception {
+		ReconnectBackoff backoff = new ReconnectBackoff(1, 1, 2, 50, new Random(1));
+		backoff.nextDelayMillis();
+		backoff.connected();
+		backoff.disconnected();
+		assertEquals(1, backoff.getAttempts(), "A connection that drops at once should not restart the count");
+		backoff.connected();
+		Thread.sleep(60);
+		backoff.disconnected();
+		assertEquals(0, backoff.getAttempts(), "A connection that stayed up should restart the count");
+
+		// Accepts, welcomes the player and hangs up, over and over
+		AtomicInteger accepted = new AtomicInteger();
+		try (ServerSocket listener = new ServerSocket(0)) {
+			Thread server = new Thread(() -> {
+				while (!listener.isClosed()) {
+					try (Socket socket = listener.accept();
+							PokerStream stream = WireFormat.JAVA.open(socket.getInputStream(), socket.getOutputStream())) {
+						accepted.incrementAndGet();
+						stream.read();
+						stream.write(update(PokerInfo.Action.UPDATE, "Welcome! Place your bets.", 100));
+						stream.flush();
+					} catch (Exception e) {
+						// Closed by the test, or the client hung up first
+					}
+				}
+			}, "flapping-server");
+			server.setDaemon(true);
+			server.start();
+
+			System.setProperty("poker.reconnectBaseMs", "1");
+			System.setProperty("poker.reconnectAttempts", "3");
+			try {
+				BlockingQueue<String> notices = new LinkedBlockingQueue<>();
+				ClientController controller = new ClientController() {
+					@Override
+					public void handleServerUpdate(PokerInfo info) {
+					}
+
+					@Override
+					public void showMessage(String msg) {
+						notices.add(msg);
+					}
+				};
+				ClientNetworkThread network = new ClientNetworkThread("127.0.0.1", listener.getLocalPort(), controller, WireFormat.JAVA);
+				network.setDaemon(true);
+				network.start();
+				network.join(10_000);
+				assertFalse(network.isAlive(), "The client should give up once its attempts run out");
+				assertTrue(notices.contains("Connection lost or unable to connect."), notices.toString());
+				assertEquals(4, accepted.get(), "One connection plus three reconnects");
+			} finally {
+				System.clearProperty("poker.reconnectBaseMs");
+				System.clearProperty("poker.reconnectAttempts");
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test the startup warm-up tasks run off the FX thread and record milestones once")
+	void testStartupWarmup() {
+		assertDoesNotThrow(StartupWarmup::warmCodec);
+		assertDoesNotThrow(StartupWarmup::warmSerialization);
+		assertDoesNotThrow(StartupWarmup::warmEquity);
+
+		StartupWarmup warmup = new StartupWarmup();
+		warmup.mark("welcome shown");
+		warmup.mark("first hand playable");
+		long first = warmup.getMilestones().get("first hand playable");
+		warmup.mark("first hand playable");
+		assertEquals(2, warmup.getMilestones().size());
+		assertEquals(first, warmup.getMilestones().get("first hand playable"), "Only the first time a milestone is reached counts");
+		assertTrue(warmup.describe().contains("welcome shown"));
+	}
+
+	@Test
+	@DisplayName("Test the game log keeps a fixed number of lines and spills the rest")
+	void testGameLogRingBuffer() throws Exception {
+		Path spillFile = Files.createTempFile("game-log", ".txt");
+		try {
+			try (GameLog log = new GameLog(3, spillFile)) {
+				int[] changes = {0};
+				log.addListener((ListChangeListener<String>) change -> {
+					while (change.next()) {
+						changes[0]++;
+					}
+				});
+				log.appendText("one\ntwo\n\n");
+				assertEquals(Arrays.asList("one", "two"), log, "Blank lines should be skipped");
+
+				log.appendText("three\nfour\nfive\n");
+				assertEquals(Arrays.asList("three", "four", "five"), log, "Oldest lines should be evicted");
+				assertEquals(3, log.getCapacity());
+				for (int i = 0; i < 10_000; i++) {
+					log.appendText("line " + i + "\n");
+				}
+				assertEquals(3, log.size(), "Size should stay at capacity");
+				assertEquals("line 9999", log.get(2));
+				assertTrue(changes[0] > 0, "Listeners should see the changes");
+
+				log.clear();
+				assertTrue(log.isEmpty());
+				assertEquals(10_005, log.getSpilledCount(), "Every line that left the log should be spilled");
+				log.appendText("still showing\n");
+			}
+			List<String> spilled = Files.readAllLines(spillFile);
+			assertEquals(10_006, spilled.size(), "Closing should spill the lines still in memory");
+			assertEquals("one", spilled.get(0));
+			assertEquals("line 9999", spilled.get(spilled.size() - 2));
+			assertEquals("still showing", spilled.get(spilled.size() - 1));
+		} finally {
+			Files.deleteIfExists(spillFile);
+		}
+	}
+
+	@Test
+	@DisplayName("Test cards are shared flyweights addressed by a 6-bit ordinal")
+	void testCardFlyweight() throws Exception {
+		Card queen = Card.of('H', 12);
+		assertSame(queen, Card.of('H', 12), "Each card should have one instance");
+		assertSame(queen, Card.ofOrdinal(queen.ordinal()));
+		assertEquals(new Card('H', 12), queen);
+		assertEquals("12H", queen.imageKey());
+		for (int ordinal = 0; ordinal < Card.COUNT; ordinal++) {
+			Card card = Card.ofOrdinal(ordinal);
+			assertEquals(ordinal, Card.ordinalOf(card.getSuit(), card.getValue()));
+			assertTrue(ordinal < 64, "Ordinals should fit in six bits");
+		}
+		assertThrows(IllegalArgumentException.class, () -> Card.of('X', 5));
+		assertThrows(IllegalArgumentException.class, () -> Card.ofOrdinal(52));
+
+		// Both wire formats hand back the shared instances
+		PokerInfo info = new PokerInfo();
+		info.getPlayerHand().add(new Card('H', 12));
+		info.getPlayerHand().add(new Card('S', 14));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(info);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			PokerInfo copy = (PokerInfo) in.readObject();
+			assertSame(queen, copy.getPlayerHand().get(0), "Deserialized cards should be canonicalized");
+		}
+		ByteBuffer frame = ByteBuffer.allocate(256);
+		PokerInfoCodec.writeFrame(info, frame);
+		frame.flip();
+		assertSame(Card.of('S', 14), PokerInfoCodec.readFrame(frame).getPlayerHand().get(1));
+
+		assertEquals((1L << queen.ordinal()) | (1L << Card.of('S', 14).ordinal()), Card.maskOf(info.getPlayerHand()));
+	}
+
+	@Test
+	@DisplayName("Test the hand lookup table agrees with the evaluator on every combination")
+	void testHandLookupTable() {
+		Set<Integer> indexes = new HashSet<>();
+		for (int c = 2; c < Card.COUNT; c++) {
+			for (int b = 1; b < c; b++) {
+				for (int a = 0; a < b; a++) {
+					int expected = HandEvaluator.evaluate(Card.ofOrdinal(a), Card.ofOrdinal(b), Card.ofOrdinal(c));
+					assertEquals(expected, HandLookupTable.score(c, a, b), "Card order should not matter");
+					indexes.add(HandLookupTable.index(a, b, c));
+				}
+			}
+		}
+		assertEquals(HandLookupTable.COMBINATIONS, indexes.size(), "Every combination should have its own slot");
+		assertThrows(IllegalArgumentException.class, () -> HandLookupTable.score(5, 5, 9));
+
+		List<Card> queens = Arrays.asList(Card.of('H', 12), Card.of('S', 12), Card.of('C', 4));
+		int score = HandLookupTable.score(queens);
+		assertEquals(HandEvaluator.PAIR, HandEvaluator.category(score));
+		assertEquals("Pair of Queens", HandEvaluator.label(score));
+		assertEquals("Pair of 6s", HandEvaluator.label(HandLookupTable.score(Card.of('H', 6), Card.of('S', 6), Card.of('C', 9))));
+		assertEquals("Three 6s", HandEvaluator.label(HandLookupTable.score(Card.of('H', 6), Card.of('S', 6), Card.of('C', 6))));
+		assertEquals("Straight, 3 high", HandEvaluator.label(HandLookupTable.score(Card.of('H', 14), Card.of('S', 2), Card.of('C', 3))));
+		assertEquals("Flush, King high", HandEvaluator.label(HandLookupTable.score(Card.of('D', 13), Card.of('D', 7), Card.of('D', 2))));
+	}
+
+	@Test
+	@DisplayName("Test the parallel equity calculator matches a direct enumeration")
+	void testEquityCalculator() {
+		List<Card> hand = Arrays.asList(Card.of('H', 12), Card.of('S', 6), Card.of('D', 4));
+		EquityCalculator.Equity equity = new EquityCalculator(new ForkJoinPool(4)).evaluate(hand, 10, 5);
+		assertEquals(EquityCalculator.DEALER_HANDS, equity.getDealerHands());
+
+		// Settle every dealer hand one by one with the server's paytable
+		long seen = Card.maskOf(hand);
+		int playerScore = HandEvaluator.evaluate(hand);
+		long total = 0;
+		int dealerHands = 0;
+		for (int a = 0; a < Card.COUNT; a++) {
+			for (int b = a + 1; b < Card.COUNT; b++) {
+				for (int c = b + 1; c < Card.COUNT; c++) {
+					if ((seen & (1L << a | 1L << b | 1L << c)) != 0) {
+						continue;
+					}
+					int dealerScore = HandEvaluator.evaluate(Card.ofOrdinal(a), Card.ofOrdinal(b), Card.ofOrdinal(c));
+					total += Paytable.playWinnings(playerScore, dealerScore, 10, 5);
+					dealerHands++;
+				}
+			}
+		}
+		assertEquals(dealerHands, equity.getDealerHands());
+		assertEquals(total / (double) dealerHands, equity.getPlayEv(), 1e-9);
+		assertEquals(-15, equity.getFoldEv(), 1e-9);
+		assertEquals(1.0, equity.getWinProbability() + equity.getLossProbability() + equity.getPushProbability()
+				+ equity.getDealerNotQualifiedProbability(), 1e-9);
+
+		// Queen-6-4 is the known break-even point for playing with ante only
+		EquityCalculator calculator = new EquityCalculator();
+		assertTrue(calculator.evaluate(hand, 1, 0).shouldPlay(), "Queen-6-4 should be played");
+		assertFalse(calculator.evaluate(Arrays.asList(Card.of('H', 12), Card.of('S', 6), Card.of('D', 3)), 1, 0).shouldPlay(),
+				"Queen-6-3 should be folded");
+	}
+
+	@Test
+	@DisplayName("Test the strategy table agrees with the equity calculator")
+	void testStrategyTable() throws Exception {
+		Path file = Files.createTempFile("strategy", ".tbl");
+		try {
+			StrategyTable.generate(file);
+			assertEquals(StrategyTable.HEADER_BYTES + HandLookupTable.COMBINATIONS * StrategyTable.RECORD_BYTES,
+					Files.size(file));
+			StrategyTable table = StrategyTable.open(file);
+
+			// Lookups agree with a live calculation, in any card order and with pair plus
+			EquityCalculator calculator = new EquityCalculator();
+			List<Card> queenSixFour = Arrays.asList(Card.of('D', 4), Card.of('H', 12), Card.of('S', 6));
+			List<Card> queenSixThree = Arrays.asList(Card.of('H', 12), Card.of('S', 6), Card.of('D', 3));
+			List<Card> pair = Arrays.asList(Card.of('C', 9), Card.of('H', 9), Card.of('S', 2));
+			for (List<Card> hand : Arrays.asList(queenSixFour, queenSixThree, pair)) {
+				for (int pairPlus : new int[] {0, 5}) {
+					EquityCalculator.Equity exact = calculator.evaluate(hand, 10, pairPlus);
+					assertEquals(exact.getPlayEv(), table.playEv(hand, 10, pairPlus), 1e-4);
+					assertEquals(exact.shouldPlay(), table.shouldPlay(hand, 10, pairPlus));
+				}
+			}
+			assertTrue(table.shouldPlay(queenSixFour, 1, 0), "Queen-6-4 should be played");
+			assertFalse(table.shouldPlay(queenSixThree, 1, 0), "Queen-6-3 should be folded");
+
+			// Past decisions are judged against the table
+			assertTrue(table.wasRight(queenSixThree, 10, 0, false));
+			assertFalse(table.wasRight(queenSixThree, 10, 0, true));
+			assertEquals(0, table.cost(queenSixFour, 10, 0, true), 1e-9);
+			assertTrue(table.cost(pair, 10, 0, false) > 0);
+			assertTrue(table.hint(queenSixFour, 10, 0).startsWith("Recommended: Play"));
+
+			// A truncated file is rejected
+			Files.write(file, new byte[16]);
+			assertThrows(IOException.class, () -> StrategyTable.open(file));
+
+			// The client does not generate a missing table unless asked to
+			Files.delete(file);
+			assertNull(StrategyTable.load(file), "A missing table should just mean no hints");
+			assertFalse(Files.exists(file), "Nothing should be written without poker.strategyGenerate");
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	@DisplayName("Test the round simulator reproduces the house edge for a seed")
+	void testRoundSimulator() throws Exception {
+		RoundSimulator simulator = new RoundSimulator(RoundSimulator.PlayStrategy.QUEEN_SIX_FOUR,
+				RoundSimulator.BetSizing.flat(5, 0), 1_000_000, 10_000);
+		RoundSimulator.Report report = simulator.run(2_000_000, 2, 7);
+		assertEquals(2_000_000, report.getRounds());
+		assertEquals(200, report.getSessions());
+		assertEquals(0, report.getRiskOfRuin(), 1e-9);
+		// Queen-6-4 gives up about 3.4% of the ante per round, about 2% of all money wagered
+		assertEquals(-0.034 * 5, report.getMeanNet(), 0.03);
+		assertEquals(0.98, report.getRtp(), 0.006);
+		assertTrue(report.getVariance() > 25 && report.getVariance() < 200, "Variance " + report.getVariance());
+
+		// Same seed and thread count, same rounds
+		assertEquals(report.getNet(), simulator.run(2_000_000, 2, 7).getNet());
+
+		// Folding every hand loses $5 a round; from $100 the 19th round leaves too little to cover ante and play
+		RoundSimulator.Report folding = new RoundSimulator(RoundSimulator.PlayStrategy.ALWAYS_FOLD,
+				RoundSimulator.BetSizing.flat(5, 0), 100, 1000).run(10_000, 2, 7);
+		assertEquals(10, folding.getSessions());
+		assertEquals(190, folding.getRounds());
+		assertEquals(1.0, folding.getRiskOfRuin(), 1e-9);
+		assertEquals(0.0, folding.getRtp(), 1e-9);
+	}
+
+	@Test
+	@DisplayName("Test the hand history records every message in rolling segments")
+	void testHandHistoryRecorder() throws Exception {
+		Path dir = Files.createTempDirectory("history");
+		try {
+			// Tiny segments so the recording rolls over several times
+			HandHistoryRecorder recorder = new HandHistoryRecorder(dir, 200, 4096);
+			for (int i = 0; i < 30; i++) {
+				PokerInfo info = batchStep(i % 2 == 0 ? PokerInfo.Action.PLACE_BET : PokerInfo.Action.DEAL, i);
+				recorder.record(i % 3 == 0 ? HandHistoryRecorder.Direction.RECEIVED : HandHistoryRecorder.Direction.SENT, info);
+				info.setAnteBetRequest(-1); // Changing the message afterwards must not change the record
+			}
+			recorder.close();
+			recorder.record(HandHistoryRecorder.Direction.SENT, batchStep(PokerInfo.Action.DEAL, 0)); // Ignored once closed
+			assertEquals(30, recorder.getRecorded());
+			assertEquals(0, recorder.getDropped());
+			long segments;
+			try (Stream<Path> files = Files.list(dir)) {
+				segments = files.count();
+			}
+			assertTrue(segments > 1, "Segments should roll by size, got " + segments);
+
+			List<HandHistoryReader.Entry> entries = HandHistoryReader.readAll(dir);
+			assertEquals(30, entries.size());
+			long previous = -1;
+			for (int i = 0; i < entries.size(); i++) {
+				HandHistoryReader.Entry entry = entries.get(i);
+				assertEquals(i % 2 == 0 ? PokerInfo.Action.PLACE_BET : PokerInfo.Action.DEAL, entry.getInfo().getAction());
+				assertEquals(i, entry.getInfo().getAnteBetRequest());
+				assertEquals(i % 3 == 0 ? HandHistoryRecorder.Direction.RECEIVED : HandHistoryRecorder.Direction.SENT, entry.getDirection());
+				assertTrue(entry.getNanos() >= previous, "Timestamps should not go backwards");
+				previous = entry.getNanos();
+			}
+
+			// A client killed mid-write leaves a partial entry; everything before it still reads
+			Path last;
+			try (Stream<Path> files = Files.list(dir)) {
+				last = files.sorted().reduce((a, b) -> b).get();
+			}
+			byte[] magic = Arrays.copyOf(Files.readAllBytes(last), 4);
+			assertEquals("TCPH", new String(magic, StandardCharsets.US_ASCII), "Segments should start with the magic");
+			Files.write(last, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+			assertEquals(30, HandHistoryReader.readAll(dir).size());
+		} finally {
+			try (Stream<Path> files = Files.list(dir)) {
+				files.forEach(f -> f.toFile().delete());
+			}
+			Files.deleteIfExists(dir);
+		}
+	}
+
+	@Test
+	@DisplayName("Test a recorded session replays into a headless client")
+	void testSessionReplay() throws Exception {
+		Path dir = Files.createTempDirectory("history");
+		try {
+			// Record a real hand against the stub server
+			int received = 0;
+			try (StubPokerServer server = new StubPokerServer(0, WireFormat.BINARY, 0, 5)) {
+				server.start();
+				BlockingQueue<PokerInfo> updates = new LinkedBlockingQueue<>();
+				ClientController controller = new ClientController() {
+					@Override
+					public void handleServerUpdate(PokerInfo info) {
+						updates.add(info);
+					}
+
+					@Override
+					public void showMessage(String msg) {
+					}
+				};
+				ClientNetworkThread network = new ClientNetworkThread("127.0.0.1", server.getPort(), controller, WireFormat.BINARY);
+				network.setHistory(new HandHistoryRecorder(dir, HandHistoryRecorder.DEFAULT_SEGMENT_BYTES, 4096));
+				network.setDaemon(true);
+				network.start();
+				for (PokerInfo.Action action : new PokerInfo.Action[] {PokerInfo.Action.PLACE_BET, PokerInfo.Action.DEAL, PokerInfo.Action.PLAY}) {
+					assertNotNull(updates.poll(10, TimeUnit.SECONDS), "No answer before " + action);
+					received++;
+					network.sendInfo(batchStep(action, 10));
+				}
+				assertEquals(GamePhase.RESULTS, updates.poll(10, TimeUnit.SECONDS).getPhase());
+				received++;
+				network.shutdown();
+			}
+
+			SessionReplay replay = new SessionReplay(HandHistoryReader.readAll(dir));
+			assertEquals(received, replay.getFrameCount(), "Only received messages are replayed");
+
+			// As fast as possible into the headless client
+			SessionReplay.HeadlessTarget target = new SessionReplay.HeadlessTarget();
+			SessionReplay.Report report = replay.run(target, 0);
+			assertEquals(received, report.getDelivered());
+			assertEquals(0, report.getSkipped());
+			assertEquals(GamePhase.RESULTS, target.getPhase());
+			assertFalse(target.getLog().isEmpty());
+			assertEquals(received, replay.getProcessing().getCount());
+
+			// At the original timing the replay takes about as long as the recording
+			List<HandHistoryReader.Entry> entries = HandHistoryReader.readAll(dir);
+			long recorded = entries.stream().filter(e -> e.getDirection() == HandHistoryRecorder.Direction.RECEIVED)
+					.mapToLong(HandHistoryReader.Entry::getNanos).max().getAsLong()
+					- entries.stream().filter(e -> e.getDirection() == HandHistoryRecorder.Direction.RECEIVED)
+					.mapToLong(HandHistoryReader.Entry::getNanos).min().getAsLong();
+			SessionReplay.Report timed = new SessionReplay(entries).run(new SessionReplay.HeadlessTarget(), 1);
+			assertTrue(timed.getElapsedNanos() >= recorded, "Replay ran faster than recorded");
+			assertThrows(IllegalArgumentException.class, () -> replay.run(target, -1));
+		} finally {
+			try (Stream<Path> files = Files.list(dir)) {
+				files.forEach(f -> f.toFile().delete());
+			}
+			Files.deleteIfExists(dir);
+		}
+	}
+
+	private static PokerInfo answer(GamePhase phase, long correlationId) {
+		PokerInfo info = new PokerInfo();
+		info.setAction(phase == GamePhase.RESULTS ? PokerInfo.Action.RESULTS : PokerInfo.Action.UPDATE);
+		info.setPhase(phase);
+		info.setCorrelationId(correlationId);
+		return info;
+	}
+
+	@Test
+	@DisplayName("Test request latency is paired with the right response and published over JMX")
+	void testActionLatencyTracker() throws Exception {
+		ActionLatencyTracker tracker = new ActionLatencyTracker();
+		tracker.requestSent(batchStep(PokerInfo.Action.PLACE_BET, 10));
+		tracker.requestSent(batchStep(PokerInfo.Action.DEAL, 0));
+		tracker.requestSent(batchStep(PokerInfo.Action.EXIT, 0)); // Never answered, so never waited for
+		tracker.responseReceived(answer(GamePhase.BET_PLACED, 0));
+		tracker.responseReceived(answer(GamePhase.CARDS_DEALT, 0));
+		assertEquals(1, tracker.getHistogram(PokerInfo.Action.PLACE_BET).getCount());
+		assertEquals(1, tracker.getHistogram(PokerInfo.Action.DEAL).getCount());
+		tracker.responseReceived(answer(GamePhase.BETTING, 0));
+		assertEquals(1, tracker.getUnmatched());
+		assertEquals(0, tracker.getMismatched());
+
+		// A batch is timed as its requests; a request that was not sent is skipped
+		PokerInfo batch = new PokerInfo();
+		batch.setAction(PokerInfo.Action.BATCH);
+		batch.setBatch(new ArrayList<>(Arrays.asList(batchStep(PokerInfo.Action.NEW_GAME, 0), batchStep(PokerInfo.Action.PLACE_BET, 10))));
+		tracker.requestSent(batch);
+		long mark = tracker.requestSent(batchStep(PokerInfo.Action.FOLD, 0));
+		tracker.cancel(mark);
+		tracker.requestSent(batchStep(PokerInfo.Action.PLAY, 0));
+		tracker.responseReceived(answer(GamePhase.NEW_GAME, 0));
+		tracker.responseReceived(answer(GamePhase.BETTING, 0)); // Bet refused; the round stays where it was
+		tracker.responseReceived(answer(GamePhase.RESULTS, 0));
+		assertEquals(1, tracker.getHistogram(PokerInfo.Action.NEW_GAME).getCount());
+		assertEquals(2, tracker.getHistogram(PokerInfo.Action.PLACE_BET).getCount());
+		assertEquals(0, tracker.getHistogram(PokerInfo.Action.FOLD).getCount());
+		assertEquals(1, tracker.getHistogram(PokerInfo.Action.PLAY).getCount());
+		assertEquals(0, tracker.getMismatched());
+
+		// An unsolicited message is skipped and the request keeps waiting for its answer
+		tracker.requestSent(batchStep(PokerInfo.Action.DEAL, 0));
+		tracker.responseReceived(answer(GamePhase.RESULTS, 0));
+		assertEquals(1, tracker.getMismatched());
+		tracker.responseReceived(answer(GamePhase.CARDS_DEALT, 0));
+		assertEquals(2, tracker.getHistogram(PokerInfo.Action.DEAL).getCount());
+
+		// A request that is never answered is given up on when a later one is
+		tracker.requestSent(batchStep(PokerInfo.Action.NEW_GAME, 0));
+		tracker.requestSent(batchStep(PokerInfo.Action.PLACE_BET, 10));
+		tracker.responseReceived(answer(GamePhase.BET_PLACED, 0));
+		assertEquals(1, tracker.getHistogram(PokerInfo.Action.NEW_GAME).getCount());
+		assertEquals(3, tracker.getHistogram(PokerInfo.Action.PLACE_BET).getCount());
+		assertEquals(2, tracker.getMismatched());
+
+		// Echoed correlation ids pair exactly, whatever the phase
+		PokerInfo tracked = new PokerInfo();
+		tracked.setAction(PokerInfo.Action.BATCH);
+		PokerInfo fresh = batchStep(PokerInfo.Action.FRESH_START, 0);
+		fresh.setCorrelationId(7);
+		PokerInfo bet = batchStep(PokerInfo.Action.PLACE_BET, 10);
+		bet.setCorrelationId(8);
+		tracked.setBatch(new ArrayList<>(Arrays.asList(fresh, bet)));
+		tracker.requestSent(tracked);
+		tracker.responseReceived(answer(GamePhase.FRESH_START, 0)); // Not the answer to a tracked request
+		tracker.responseReceived(answer(GamePhase.CARDS_DEALT, 7));
+		tracker.responseReceived(answer(GamePhase.CARDS_DEALT, 8));
+		assertEquals(1, tracker.getHistogram(PokerInfo.Action.FRESH_START).getCount());
+		assertEquals(4, tracker.getHistogram(PokerInfo.Action.PLACE_BET).getCount());
+		assertEquals(3, tracker.getMismatched());
+		assertEquals(1, tracker.getUnmatched());
+
+		// The ring is bounded; a dropped connection forgets what is waiting
+		for (int i = 0; i < ActionLatencyTracker.CAPACITY + 5; i++) {
+			tracker.requestSent(batchStep(PokerInfo.Action.DEAL, 0));
+		}
+		assertEquals(5, tracker.getOverflows());
+		tracker.clear();
+		tracker.responseReceived(answer(GamePhase.CARDS_DEALT, 0));
+		assertEquals(2, tracker.getUnmatched());
+
+		// Recording allocates nothing once warm; the least of a few runs, so JIT activity does not count
+		PokerInfo deal = batchStep(PokerInfo.Action.DEAL, 0);
+		PokerInfo dealt = answer(GamePhase.CARDS_DEALT, 0);
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+			long allocated = Long.MAX_VALUE;
+			for (int run = 0; run < 5 && allocated >= 1024; run++) {
+				long before = allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+				for (int i = 0; i < 100_000; i++) {
+					tracker.requestSent(deal);
+					tracker.responseReceived(dealt);
+				}
+				allocated = Math.min(allocated, allocation.getThreadAllocatedBytes(Thread.currentThread().getId()) - before);
+			}
+			assertTrue(allocated < 1024, "Recording allocated " + allocated + " bytes");
+		}
+
+		// Published over JMX
+		ActionLatencyTracker.publish(tracker);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("projectThreeClient:type=ActionLatency,action=PLACE_BET");
+		assertEquals(4L, server.getAttribute(name, "Count"));
+		assertTrue((Double) server.getAttribute(name, "P99Micros") >= (Double) server.getAttribute(name, "P50Micros"));
+
+		// A real connection pairs each request with its response
+		try (StubPokerServer stub = new StubPokerServer(0, WireFormat.BINARY, 0, 3)) {
+			stub.start();
+			BlockingQueue<PokerInfo> updates = new LinkedBlockingQueue<>();
+			ClientController controller = new ClientController() {
+				@Override
+				public void handleServerUpdate(PokerInfo info) {
+					updates.add(info);
+				}
+
+				@Override
+				public void showMessage(String msg) {
+				}
+			};
+			ClientNetworkThread network = new ClientNetworkThread("127.0.0.1", stub.getPort(), controller, NioTransport.shared());
+			network.setDaemon(true);
+			network.start();
+			for (PokerInfo.Action action : new PokerInfo.Action[] {PokerInfo.Action.PLACE_BET, PokerInfo.Action.DEAL, PokerInfo.Action.PLAY}) {
+				assertNotNull(updates.poll(10, TimeUnit.SECONDS), "No answer before " + action);
+				network.sendInfo(batchStep(action, 10));
+			}
+			assertEquals(GamePhase.RESULTS, updates.poll(10, TimeUnit.SECONDS).getPhase());
+			ActionLatencyTracker latency = network.getLatency();
+			for (PokerInfo.Action action : new PokerInfo.Action[] {PokerInfo.Action.CONNECT, PokerInfo.Action.PLACE_BET, PokerInfo.Action.DEAL, PokerInfo.Action.PLAY}) {
+				assertEquals(1, latency.getHistogram(action).getCount(), action + " should be timed once");
+			}
+			assertEquals(0, latency.getUnmatched());
+			assertEquals(0, latency.getMismatched());
+			network.shutdown();
+		}
+	}
+
 	/**
 	 * Mock ClientMain to capture messages and round winnings.
 	 */